@@ -0,0 +1,119 @@
+package com.hfut.studyroom.benchmark;
+
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.BookingRepository.PendingBooking;
+import com.hfut.studyroom.service.BookingBatchService;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时任务/超时引擎基准测试（完整应用 + 文件H2 + 数百万条历史预约）
+ * 在SeededApplication的基础上再写入historyRows条过去两年的已结束预约，
+ * 另有今天的ACTIVE预约（尚未结束）作为兜底任务需要跳过的数据。
+ * 数据量超出内存库的承受范围，改用target/benchmark下的文件库（每次启动重建表）；
+ * 写入前删除Booking实体声明的索引，写完后再按实体定义重建，避免逐行维护索引导致写入过慢
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Xmx2g",
+        "-D" + SeededApplication.DATASOURCE_URL_PROPERTY + "=jdbc:h2:file:./target/benchmark/expiry;CACHE_SIZE=524288"
+})
+public class BookingExpiryBenchmark {
+    
+    private static final int ACTIVE_ROWS = 2000;
+    private static final int INSERT_CHUNK = 100000;
+    
+    @Param("2000000")
+    public int historyRows;
+    
+    private BookingBatchService bookingBatchService;
+    private BookingRepository bookingRepository;
+    
+    @Setup
+    public void setUp(SeededApplication application) {
+        bookingBatchService = application.getBean(BookingBatchService.class);
+        bookingRepository = application.getBean(BookingRepository.class);
+        
+        JdbcTemplate jdbcTemplate = application.getBean(JdbcTemplate.class);
+        Long firstSeatId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM seat", Long.class);
+        Index[] indexes = Booking.class.getAnnotation(Table.class).indexes();
+        for (Index index : indexes) {
+            jdbcTemplate.execute("DROP INDEX " + index.name());
+        }
+        // 过去730天的已结束预约：80% COMPLETED、10% CANCELLED、10% TIMEOUT，分块写入避免单个大事务
+        for (int from = 1; from <= historyRows; from += INSERT_CHUNK) {
+            jdbcTemplate.update(
+                    "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, start_at, end_at, status, created_at) " +
+                    "SELECT 2 + MOD(x, 2), ? + MOD(x, 30000), d, TIME '14:00:00', TIME '16:00:00', " +
+                    "d + TIME '14:00:00', d + TIME '16:00:00', " +
+                    "CASE MOD(x, 10) WHEN 0 THEN 'CANCELLED' WHEN 1 THEN 'TIMEOUT' ELSE 'COMPLETED' END, d " +
+                    "FROM (SELECT X AS x, CAST(CURRENT_DATE - 1 - MOD(X, 730) AS TIMESTAMP) AS d FROM SYSTEM_RANGE(?, ?))",
+                    firstSeatId, from, Math.min(from + INSERT_CHUNK - 1, historyRows));
+        }
+        // 今天已签到、23:59结束的预约
+        jdbcTemplate.update(
+                "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, start_at, end_at, status, check_in_time, created_at) " +
+                "SELECT 2 + MOD(X, 2), ? + X, CURRENT_DATE, TIME '00:00:00', TIME '23:59:00', " +
+                "CAST(CURRENT_DATE AS TIMESTAMP), CAST(CURRENT_DATE AS TIMESTAMP) + TIME '23:59:00', " +
+                "'ACTIVE', CAST(CURRENT_DATE AS TIMESTAMP), CAST(CURRENT_DATE AS TIMESTAMP) " +
+                "FROM SYSTEM_RANGE(1, ?)",
+                firstSeatId, ACTIVE_ROWS);
+        for (Index index : indexes) {
+            jdbcTemplate.execute("CREATE INDEX " + index.name() + " ON booking (" + index.columnList() + ")");
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+    
+    /**
+     * 兜底超时任务（BookingScheduler.releaseTimeoutBookings，无到期预约）
+     */
+    @Benchmark
+    public int timeoutSweep() {
+        return bookingBatchService.timeoutPending(LocalDateTime.now().minusMinutes(15));
+    }
+    
+    /**
+     * 自动完成任务（BookingScheduler.completeExpiredBookings，无到期预约）
+     */
+    @Benchmark
+    public int completeSweep() {
+        return bookingBatchService.completeExpired(LocalDateTime.now());
+    }
+    
+    /**
+     * 超时引擎启动加载：只取ID、座位和开始时间
+     */
+    @Benchmark
+    public List<PendingBooking> engineStartupProjection() {
+        return bookingRepository.findPendingBookings();
+    }
+    
+    /**
+     * 超时引擎启动加载：加载完整实体（对照）
+     */
+    @Benchmark
+    public List<Booking> engineStartupEntities() {
+        return bookingRepository.findByStatus("PENDING");
+    }
+}
@@ -0,0 +1,103 @@
+package com.hfut.studyroom.benchmark;
+
+import com.hfut.studyroom.dto.BookingRequest;
+import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.service.BookingService;
+import com.hfut.studyroom.service.SeatAvailabilityIndex;
+import com.hfut.studyroom.service.SeatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约热点路径基准测试（完整应用 + 内存H2）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingHotPathBenchmark {
+    
+    private static final Long BENCHMARK_USER_ID = 1L;
+    private static final Long BOOKED_SEAT_ID = 2L;
+    private static final Long CLASSROOM_ID = 1L;
+    
+    private BookingService bookingService;
+    private SeatService seatService;
+    private SeatAvailabilityIndex seatAvailabilityIndex;
+    private BookingRepository bookingRepository;
+    
+    private BookingRequest conflictRequest;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    
+    @Setup
+    public void setUp(SeededApplication application) {
+        bookingService = application.getBean(BookingService.class);
+        seatService = application.getBean(SeatService.class);
+        seatAvailabilityIndex = application.getBean(SeatAvailabilityIndex.class);
+        bookingRepository = application.getBean(BookingRepository.class);
+        
+        date = LocalDate.now().plusDays(1);
+        startTime = LocalTime.of(11, 0);
+        endTime = LocalTime.of(13, 0);
+        conflictRequest = new BookingRequest();
+        conflictRequest.setSeatId(BOOKED_SEAT_ID);
+        conflictRequest.setStartTime(date + " 11:00:00");
+        conflictRequest.setEndTime(date + " 13:00:00");
+    }
+    
+    /**
+     * 完整预约流程，在座位冲突检查处被拒绝
+     */
+    @Benchmark
+    public String createBookingRejectedByConflict() {
+        try {
+            bookingService.createBooking(BENCHMARK_USER_ID, conflictRequest);
+            throw new IllegalStateException("座位冲突未被检测到");
+        } catch (BusinessException e) {
+            return e.getMessage();
+        }
+    }
+    
+    /**
+     * 冲突检查：内存占用索引
+     */
+    @Benchmark
+    public boolean conflictCheckIndex() {
+        return seatAvailabilityIndex.isFree(BOOKED_SEAT_ID, date, startTime, endTime);
+    }
+    
+    /**
+     * 冲突检查：数据库查询
+     */
+    @Benchmark
+    public boolean conflictCheckDatabase() {
+        return bookingRepository.existsConflictBooking(BOOKED_SEAT_ID, date, startTime, endTime);
+    }
+    
+    /**
+     * 教室座位图（100个座位）及预约状态
+     */
+    @Benchmark
+    public List<SeatDTO> classroomSeatsWithStatus() {
+        return seatService.getClassroomSeatsWithStatus(CLASSROOM_ID, date, startTime, endTime);
+    }
+}
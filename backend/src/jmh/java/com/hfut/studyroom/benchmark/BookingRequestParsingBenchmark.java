@@ -0,0 +1,46 @@
+package com.hfut.studyroom.benchmark;
+
+import com.hfut.studyroom.dto.BookingRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingRequest日期时间解析基准测试
+ * 一次预约会读取预约日期、开始时间、结束时间，这里按相同方式调用
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingRequestParsingBenchmark {
+    
+    private BookingRequest request;
+    
+    @Setup
+    public void setUp() {
+        request = new BookingRequest();
+        request.setSeatId(1L);
+        request.setStartTime("2024-01-15 08:00:00");
+        request.setEndTime("2024-01-15 12:00:00");
+    }
+    
+    @Benchmark
+    public void parseDateAndTimes(Blackhole blackhole) {
+        blackhole.consume(request.getBookingDate());
+        blackhole.consume(request.getStartTime());
+        blackhole.consume(request.getEndTime());
+    }
+}
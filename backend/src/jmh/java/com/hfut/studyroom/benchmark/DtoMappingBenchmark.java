@@ -0,0 +1,120 @@
+package com.hfut.studyroom.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hfut.studyroom.dto.ApiResponse;
+import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.entity.Building;
+import com.hfut.studyroom.entity.Classroom;
+import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * BookingDTO/SeatDTO转换和JSON序列化基准测试
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private Booking booking;
+    private List<Seat> classroomSeats;
+    private BookingDTO bookingDTO;
+    private List<SeatDTO> seatDTOs;
+    
+    @Setup
+    public void setUp() {
+        Building building = new Building();
+        building.setId(1L);
+        building.setName("新安学堂");
+        building.setCode("XA");
+        building.setFloors(5);
+        
+        Classroom classroom = new Classroom();
+        classroom.setId(1L);
+        classroom.setBuilding(building);
+        classroom.setRoomNumber("101");
+        classroom.setFloor(1);
+        
+        classroomSeats = new ArrayList<>();
+        for (int row = 1; row <= 10; row++) {
+            for (int col = 1; col <= 10; col++) {
+                Seat seat = new Seat();
+                seat.setId((long) classroomSeats.size() + 1);
+                seat.setClassroom(classroom);
+                seat.setSeatNumber(row + "-" + col);
+                seat.setRowNum(row);
+                seat.setColNum(col);
+                classroomSeats.add(seat);
+            }
+        }
+        
+        User user = new User();
+        user.setId(2L);
+        user.setUsername("user1");
+        
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setUser(user);
+        booking.setSeat(classroomSeats.get(0));
+        booking.setBookingDate(LocalDate.of(2024, 1, 15));
+        booking.setStartTime(LocalTime.of(8, 0));
+        booking.setEndTime(LocalTime.of(12, 0));
+        booking.setStatus("PENDING");
+        booking.setCreatedAt(LocalDateTime.of(2024, 1, 14, 20, 30));
+        
+        bookingDTO = BookingDTO.fromEntity(booking);
+        seatDTOs = classroomSeats.stream().map(SeatDTO::fromEntity).collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public BookingDTO bookingFromEntity() {
+        return BookingDTO.fromEntity(booking);
+    }
+    
+    @Benchmark
+    public String bookingToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success(bookingDTO));
+    }
+    
+    /**
+     * 一个教室100个座位的转换
+     */
+    @Benchmark
+    public List<SeatDTO> classroomSeatsFromEntity() {
+        return classroomSeats.stream().map(SeatDTO::fromEntity).collect(Collectors.toList());
+    }
+    
+    /**
+     * 一个教室100个座位的序列化
+     */
+    @Benchmark
+    public String classroomSeatsToJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success(seatDTOs));
+    }
+}
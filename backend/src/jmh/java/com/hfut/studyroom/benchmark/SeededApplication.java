@@ -0,0 +1,94 @@
+package com.hfut.studyroom.benchmark;
+
+import com.hfut.studyroom.StudyRoomApplication;
+import com.hfut.studyroom.service.SeatAvailabilityIndex;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的应用上下文
+ * 使用内存H2启动完整应用，DataInitializer生成与生产相同规模的数据（2栋楼、300个教室、30000个座位），
+ * 再为今后7天的偶数号座位各生成一条10:00-12:00的预约。
+ * 默认使用内存H2，数据量大的基准可通过系统属性benchmark.datasource.url改用文件库
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+    
+    public static final int SEEDED_DAYS = 7;
+    public static final LocalTime SEEDED_START = LocalTime.of(10, 0);
+    public static final LocalTime SEEDED_END = LocalTime.of(12, 0);
+    
+    public static final String DATASOURCE_URL_PROPERTY = "benchmark.datasource.url";
+    
+    public ConfigurableApplicationContext context;
+    
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(StudyRoomApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(
+                        "--spring.datasource.url=" + System.getProperty(
+                                DATASOURCE_URL_PROPERTY, "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1"),
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.hfut.studyroom=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        seedBookings();
+        context.getBean(SeatAvailabilityIndex.class).rebuild();
+    }
+    
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+    
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    private void seedBookings() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Long> seatIds = jdbcTemplate.queryForList("SELECT id FROM seat WHERE MOD(id, 2) = 0 ORDER BY id", Long.class);
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int day = 1; day <= SEEDED_DAYS; day++) {
+            LocalDate date = LocalDate.now().plusDays(day);
+            for (Long seatId : seatIds) {
+                // 预约用户取user1/user2，admin（ID=1）留给基准测试发起预约
+                rows.add(new Object[]{
+                        day % 2 == 0 ? 2L : 3L,
+                        seatId,
+                        Date.valueOf(date),
+                        Time.valueOf(SEEDED_START),
+                        Time.valueOf(SEEDED_END),
+                        Timestamp.valueOf(date.atTime(SEEDED_START)),
+                        Timestamp.valueOf(date.atTime(SEEDED_END)),
+                        "PENDING",
+                        now
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, start_at, end_at, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                rows);
+    }
+}
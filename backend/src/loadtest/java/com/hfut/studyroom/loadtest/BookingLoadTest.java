@@ -0,0 +1,133 @@
+package com.hfut.studyroom.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hfut.studyroom.StudyRoomApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预约接口压测
+ * 使用内存H2在随机端口启动完整应用（DataInitializer生成2栋楼、300个教室、30000个座位），批量写入压测用户后，
+ * 模拟「预约开放」时刻大量用户同时涌入，统计每个接口的吞吐量、p50/p95/p99延迟和错误分布。
+ * 全部在本机完成，不访问外部网络。参数见 {@link LoadTestSettings}。
+ */
+public final class BookingLoadTest {
+    
+    private static final String USERNAME_PREFIX = "load";
+    private static final String PASSWORD = "loadtest123";
+    
+    private BookingLoadTest() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudyRoomApplication.class)
+                .logStartupInfo(false)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.hfut.studyroom=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        try {
+            createUsers(context, settings.warmupUsers() + settings.users());
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            ObjectMapper objectMapper = new ObjectMapper();
+            VirtualUser.Slot slot = VirtualUser.Slot.startingAround(LocalDateTime.now());
+            System.out.printf("压测开始：%d个用户（预热%d个），并发%d，预约时段 %s - %s%n",
+                    settings.users(), settings.warmupUsers(), settings.concurrency(), slot.start(), slot.end());
+            
+            LoadTestClient client = new LoadTestClient(baseUrl, objectMapper, new LoadTestReport());
+            if (settings.warmupUsers() > 0) {
+                run(client, settings, slot, 0, settings.warmupUsers());
+            }
+            LoadTestReport report = new LoadTestReport();
+            client.setReport(report);
+            long duration = run(client, settings, slot, settings.warmupUsers(), settings.users());
+            
+            List<Map<String, Object>> rows = report.summarize(duration);
+            LoadTestReport.print(rows, duration);
+            writeResult(objectMapper, settings, rows, duration);
+        } finally {
+            context.close();
+        }
+    }
+    
+    /**
+     * 用户名为 load0、load1……，共用同一个BCrypt密文，只加密一次
+     */
+    private static void createUsers(ConfigurableApplicationContext context, int count) {
+        String encoded = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{USERNAME_PREFIX + i, encoded, "压测用户" + i, "L" + i, now});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO app_user (username, password, real_name, student_id, role, status, violation_count, created_at) " +
+                "VALUES (?, ?, ?, ?, 'USER', 'ACTIVE', 0, ?)",
+                rows);
+    }
+    
+    /**
+     * 用户 [first, first + count) 在同一时刻开始，由concurrency个线程执行，返回总耗时（纳秒）
+     */
+    private static long run(LoadTestClient client, LoadTestSettings settings, VirtualUser.Slot slot,
+                            int first, int count) throws InterruptedException {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "virtual-user-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = first; i < first + count; i++) {
+            VirtualUser user = new VirtualUser(client, settings, slot, USERNAME_PREFIX + i, PASSWORD, settings.seed() + i);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    user.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        return System.nanoTime() - begin;
+    }
+    
+    private static void writeResult(ObjectMapper objectMapper, LoadTestSettings settings,
+                                    List<Map<String, Object>> rows, long duration) throws Exception {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("settings", settings.toMap());
+        result.put("durationSeconds", duration / 1_000_000_000.0);
+        result.put("endpoints", rows);
+        File file = new File(settings.resultFile());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        System.out.printf("%n结果已写入 %s%n", file.getPath());
+    }
+}
@@ -0,0 +1,95 @@
+package com.hfut.studyroom.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * 压测HTTP客户端
+ * 每次请求按接口名记录延迟；HTTP状态非2xx或接口返回success=false时，按状态码和错误信息记为失败。
+ * token不为空时以 Authorization: Bearer 请求头发送
+ */
+public class LoadTestClient {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private volatile LoadTestReport report;
+    
+    public LoadTestClient(String baseUrl, ObjectMapper objectMapper, LoadTestReport report) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+    
+    /**
+     * 接口响应，ok为false时message为失败原因
+     */
+    public record Result(boolean ok, JsonNode data, String message) {
+    }
+    
+    /**
+     * 切换统计对象（预热结束后换成正式统计）
+     */
+    public void setReport(LoadTestReport report) {
+        this.report = report;
+    }
+    
+    public Result get(String endpoint, String path, String token) {
+        return send(endpoint, token, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+    
+    public Result post(String endpoint, String path, String token, Object body) {
+        HttpRequest.BodyPublisher publisher;
+        try {
+            publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return send(endpoint, token, HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(publisher));
+    }
+    
+    private Result send(String endpoint, String token, HttpRequest.Builder builder) {
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        HttpRequest request = builder.timeout(TIMEOUT).build();
+        LoadTestReport current = report;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            JsonNode body = response.body().length == 0 ? null : objectMapper.readTree(response.body());
+            boolean success = body != null && body.path("success").asBoolean(false);
+            if (response.statusCode() / 100 == 2 && success) {
+                current.success(endpoint, elapsed);
+                return new Result(true, body.get("data"), null);
+            }
+            String message = body != null ? body.path("message").asText("") : "";
+            current.failure(endpoint, elapsed, "HTTP " + response.statusCode() + " " + message);
+            return new Result(false, null, message);
+        } catch (IOException e) {
+            current.failure(endpoint, System.nanoTime() - start, e.getClass().getSimpleName());
+            return new Result(false, null, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(false, null, "interrupted");
+        }
+    }
+}
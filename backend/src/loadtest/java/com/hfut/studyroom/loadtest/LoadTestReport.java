@@ -0,0 +1,145 @@
+package com.hfut.studyroom.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计
+ * 按接口记录每次请求的延迟和失败原因，结束后计算吞吐量、延迟分位数和错误分布
+ */
+public class LoadTestReport {
+    
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    
+    /**
+     * 记录一次成功请求
+     */
+    public void success(String endpoint, long nanos) {
+        stats(endpoint).record(nanos, null);
+    }
+    
+    /**
+     * 记录一次失败请求，reason为HTTP状态码加业务错误信息或异常类型
+     */
+    public void failure(String endpoint, long nanos, String reason) {
+        stats(endpoint).record(nanos, reason);
+    }
+    
+    /**
+     * 按接口汇总，durationNanos为本轮压测的总耗时
+     */
+    public List<Map<String, Object>> summarize(long durationNanos) {
+        double seconds = durationNanos / 1_000_000_000.0;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        endpoints.values().stream()
+                .sorted(Comparator.comparingInt(stats -> stats.order))
+                .forEach(stats -> rows.add(stats.summarize(seconds)));
+        return rows;
+    }
+    
+    /**
+     * 打印结果表格和错误分布
+     */
+    public static void print(List<Map<String, Object>> rows, long durationNanos) {
+        System.out.printf("%n压测耗时 %.1f 秒%n%n", durationNanos / 1_000_000_000.0);
+        System.out.printf("%-36s %10s %10s %11s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map<String, Object> row : rows) {
+            System.out.printf("%-36s %10d %10d %11.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    row.get("endpoint"), row.get("requests"), row.get("errors"), row.get("throughput"),
+                    row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"));
+            totalRequests += (long) row.get("requests");
+            totalErrors += (long) row.get("errors");
+        }
+        System.out.printf("%-36s %10d %10d %11.1f%n", "total", totalRequests, totalErrors,
+                totalRequests / (durationNanos / 1_000_000_000.0));
+        
+        System.out.printf("%n错误分布%n");
+        boolean anyError = false;
+        for (Map<String, Object> row : rows) {
+            @SuppressWarnings("unchecked")
+            Map<String, Long> errors = (Map<String, Long>) row.get("errorBreakdown");
+            for (Map.Entry<String, Long> entry : errors.entrySet()) {
+                System.out.printf("  %-36s %8d  %s%n", row.get("endpoint"), entry.getValue(), entry.getKey());
+                anyError = true;
+            }
+        }
+        if (!anyError) {
+            System.out.println("  无");
+        }
+    }
+    
+    private EndpointStats stats(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointStats(key, endpoints.size()));
+    }
+    
+    /**
+     * 单个接口的统计，延迟以纳秒存放在可扩容数组中
+     */
+    private static final class EndpointStats {
+        
+        private final String endpoint;
+        private final int order;
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private long[] latencies = new long[1024];
+        private int count;
+        
+        private EndpointStats(String endpoint, int order) {
+            this.endpoint = endpoint;
+            this.order = order;
+        }
+        
+        private void record(long nanos, String reason) {
+            synchronized (this) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = nanos;
+            }
+            if (reason != null) {
+                errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+            }
+        }
+        
+        private synchronized Map<String, Object> summarize(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Long> errorBreakdown = new LinkedHashMap<>();
+            errors.entrySet().stream()
+                    .sorted(Map.Entry.<String, LongAdder>comparingByValue(
+                            Comparator.comparingLong(LongAdder::sum)).reversed())
+                    .forEach(entry -> errorBreakdown.put(entry.getKey(), entry.getValue().sum()));
+            
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", (long) count);
+            row.put("errors", errorBreakdown.values().stream().mapToLong(Long::longValue).sum());
+            row.put("throughput", count / seconds);
+            row.put("p50Ms", percentileMillis(sorted, 0.50));
+            row.put("p95Ms", percentileMillis(sorted, 0.95));
+            row.put("p99Ms", percentileMillis(sorted, 0.99));
+            row.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+            row.put("errorBreakdown", errorBreakdown);
+            return row;
+        }
+        
+        /**
+         * 最近秩法计算分位数
+         */
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
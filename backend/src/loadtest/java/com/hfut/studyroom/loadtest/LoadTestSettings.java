@@ -0,0 +1,77 @@
+package com.hfut.studyroom.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，通过系统属性传入（如 -Dloadtest.users=3000）
+ *
+ * @param users          参与统计的虚拟用户数
+ * @param warmupUsers    预热用户数（先跑一轮相同流程，结果不计入报告）
+ * @param concurrency    同时在线的虚拟用户数（压测线程数）
+ * @param seatViews      每次预约前查看的座位图次数
+ * @param maxAttempts    座位被抢时最多尝试预约的次数
+ * @param hotClassrooms  热门教室数，大部分用户集中预约这些教室
+ * @param hotRatio       选择热门教室的概率
+ * @param checkInRatio   预约成功后签到的比例
+ * @param cancelRatio    预约成功后取消的比例
+ * @param myBookingsRatio 预约后查看「我的预约」的比例
+ * @param thinkMillis    两次请求之间的最长思考时间（随机0到该值）
+ * @param seed           随机数种子，相同种子产生相同的操作序列
+ * @param resultFile     JSON结果文件
+ */
+public record LoadTestSettings(
+        int users,
+        int warmupUsers,
+        int concurrency,
+        int seatViews,
+        int maxAttempts,
+        int hotClassrooms,
+        double hotRatio,
+        double checkInRatio,
+        double cancelRatio,
+        double myBookingsRatio,
+        int thinkMillis,
+        long seed,
+        String resultFile
+) {
+    
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.users", 3000),
+                Integer.getInteger("loadtest.warmup-users", 300),
+                Integer.getInteger("loadtest.concurrency", 200),
+                Integer.getInteger("loadtest.seat-views", 3),
+                Integer.getInteger("loadtest.max-attempts", 3),
+                Integer.getInteger("loadtest.hot-classrooms", 20),
+                doubleProperty("loadtest.hot-ratio", 0.8),
+                doubleProperty("loadtest.check-in-ratio", 0.6),
+                doubleProperty("loadtest.cancel-ratio", 0.2),
+                doubleProperty("loadtest.my-bookings-ratio", 0.5),
+                Integer.getInteger("loadtest.think-ms", 0),
+                Long.getLong("loadtest.seed", 42L),
+                System.getProperty("loadtest.result", "target/loadtest-result.json"));
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("users", users);
+        map.put("warmupUsers", warmupUsers);
+        map.put("concurrency", concurrency);
+        map.put("seatViews", seatViews);
+        map.put("maxAttempts", maxAttempts);
+        map.put("hotClassrooms", hotClassrooms);
+        map.put("hotRatio", hotRatio);
+        map.put("checkInRatio", checkInRatio);
+        map.put("cancelRatio", cancelRatio);
+        map.put("myBookingsRatio", myBookingsRatio);
+        map.put("thinkMillis", thinkMillis);
+        map.put("seed", seed);
+        return map;
+    }
+    
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+}
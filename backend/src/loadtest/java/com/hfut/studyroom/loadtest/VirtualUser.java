@@ -0,0 +1,174 @@
+package com.hfut.studyroom.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.hfut.studyroom.loadtest.LoadTestClient.Result;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 虚拟用户
+ * 按真实使用顺序访问接口：登录 -> 查看教学楼和教室 -> 查看若干教室的座位图 -> 预约空闲座位（被抢时重新选座）
+ * -> 按比例签到或取消 -> 按比例查看「我的预约」
+ */
+public class VirtualUser implements Runnable {
+    
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final String SEAT_TAKEN = "该座位在此时间段已被预约";
+    
+    private final LoadTestClient client;
+    private final LoadTestSettings settings;
+    private final Slot slot;
+    private final String username;
+    private final String password;
+    private final Random random;
+    
+    public VirtualUser(LoadTestClient client, LoadTestSettings settings, Slot slot,
+                       String username, String password, long seed) {
+        this.client = client;
+        this.settings = settings;
+        this.slot = slot;
+        this.username = username;
+        this.password = password;
+        this.random = new Random(seed);
+    }
+    
+    /**
+     * 预约时段
+     * 从当前时间10分钟后开始、持续2小时，压测期间可以直接签到；临近午夜时改为从5分钟前开始，仍在签到时间内
+     */
+    public record Slot(LocalDateTime start, LocalDateTime end) {
+        
+        public static Slot startingAround(LocalDateTime now) {
+            LocalDateTime start = now.plusMinutes(10).withSecond(0).withNano(0);
+            if (!start.toLocalDate().equals(now.toLocalDate()) || start.toLocalTime().isAfter(LocalTime.of(23, 0))) {
+                start = now.minusMinutes(5).withSecond(0).withNano(0);
+            }
+            LocalDateTime end = start.plusHours(2);
+            LocalDateTime lastEnd = start.toLocalDate().atTime(23, 59);
+            return new Slot(start, end.isAfter(lastEnd) ? lastEnd : end);
+        }
+        
+        private String seatQuery() {
+            return "?date=" + start.format(DATE) + "&startTime=" + start.format(TIME) + "&endTime=" + end.format(TIME);
+        }
+    }
+    
+    @Override
+    public void run() {
+        Result login = client.post("POST /auth/login", "/auth/login", null,
+                Map.of("username", username, "password", password));
+        if (!login.ok()) {
+            return;
+        }
+        String token = login.data().path("token").asText();
+        long userId = login.data().path("user").path("id").asLong();
+        
+        think();
+        Result buildings = client.get("GET /buildings", "/buildings", token);
+        if (!buildings.ok() || buildings.data().isEmpty()) {
+            return;
+        }
+        JsonNode building = buildings.data().get(random.nextInt(buildings.data().size()));
+        
+        think();
+        Result classrooms = client.get("GET /classrooms?buildingId",
+                "/classrooms?buildingId=" + building.path("id").asLong(), token);
+        if (!classrooms.ok() || classrooms.data().isEmpty()) {
+            return;
+        }
+        List<Long> classroomIds = new ArrayList<>();
+        classrooms.data().forEach(classroom -> classroomIds.add(classroom.path("id").asLong()));
+        
+        Long bookingId = null;
+        for (int attempt = 0; attempt < settings.maxAttempts() && bookingId == null; attempt++) {
+            List<Long> freeSeatIds = List.of();
+            for (int view = 0; view < settings.seatViews(); view++) {
+                think();
+                List<Long> seatIds = viewSeats(chooseClassroom(classroomIds), token);
+                if (!seatIds.isEmpty()) {
+                    freeSeatIds = seatIds;
+                }
+            }
+            if (freeSeatIds.isEmpty()) {
+                continue;
+            }
+            
+            think();
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("seatId", freeSeatIds.get(random.nextInt(freeSeatIds.size())));
+            request.put("startTime", slot.start().format(DATE_TIME));
+            request.put("endTime", slot.end().format(DATE_TIME));
+            Result booking = client.post("POST /bookings", "/bookings?userId=" + userId, token, request);
+            if (booking.ok()) {
+                bookingId = booking.data().path("id").asLong();
+            } else if (!SEAT_TAKEN.equals(booking.message())) {
+                break;
+            }
+        }
+        if (bookingId == null) {
+            return;
+        }
+        
+        think();
+        double action = random.nextDouble();
+        if (action < settings.checkInRatio()) {
+            client.post("POST /bookings/{id}/checkin",
+                    "/bookings/" + bookingId + "/checkin?userId=" + userId, token, null);
+        } else if (action < settings.checkInRatio() + settings.cancelRatio()) {
+            client.post("POST /bookings/{id}/cancel",
+                    "/bookings/" + bookingId + "/cancel?userId=" + userId, token, null);
+        }
+        if (random.nextDouble() < settings.myBookingsRatio()) {
+            think();
+            client.get("GET /bookings/my", "/bookings/my?userId=" + userId, token);
+        }
+    }
+    
+    /**
+     * 查看教室座位图，返回空闲座位ID
+     */
+    private List<Long> viewSeats(long classroomId, String token) {
+        Result seats = client.get("GET /classrooms/{id}/seats",
+                "/classrooms/" + classroomId + "/seats" + slot.seatQuery(), token);
+        List<Long> freeSeatIds = new ArrayList<>();
+        if (seats.ok()) {
+            seats.data().forEach(seat -> {
+                if ("AVAILABLE".equals(seat.path("status").asText())) {
+                    freeSeatIds.add(seat.path("id").asLong());
+                }
+            });
+        }
+        return freeSeatIds;
+    }
+    
+    /**
+     * 大部分用户集中选择排在前面的热门教室，其余随机分布
+     */
+    private long chooseClassroom(List<Long> classroomIds) {
+        int hot = Math.min(settings.hotClassrooms(), classroomIds.size());
+        if (hot > 0 && random.nextDouble() < settings.hotRatio()) {
+            return classroomIds.get(random.nextInt(hot));
+        }
+        return classroomIds.get(random.nextInt(classroomIds.size()));
+    }
+    
+    private void think() {
+        if (settings.thinkMillis() <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(random.nextInt(settings.thinkMillis() + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hfut.studyroom.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源代理配置
+ * 用datasource-proxy包装连接池，由SqlStatementMonitor统计每条SQL
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-monitor", name = "enabled", matchIfMissing = true)
+public class DataSourceProxyConfig {
+    
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<SqlStatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(monitor.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.hfut.studyroom.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hfut.studyroom.dto.ApiResponse;
+import com.hfut.studyroom.service.SessionStore;
+import com.hfut.studyroom.service.SessionStore.Session;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 登录会话过滤器
+ * 从请求头 Authorization: Bearer &lt;token&gt; 中取出token，在内存会话中解析当前用户并放入请求属性，不访问数据库。
+ * 需要登录的路径没有有效会话时返回401；管理端路径，以及只允许管理员修改的路径上的非GET请求，要求管理员角色；
+ * 普通用户请求参数中的userId必须是自己，否则返回403。
+ * 这里只检查userId参数，不检查路径中的预约ID等资源ID：
+ * /bookings下的接口都必须携带userId（缺少时返回400），
+ * 路径中的预约、票据由服务层按userId校验归属（不是本人的返回「无权操作此预约」）
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.session", name = "enabled", matchIfMissing = true)
+public class SessionFilter extends OncePerRequestFilter {
+    
+    /**
+     * 当前会话在请求属性中的名称，控制器可通过 @RequestAttribute 获取
+     */
+    public static final String SESSION_ATTRIBUTE = "session";
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    
+    private final SessionStore sessionStore;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${app.session.protected-paths:/auth/me,/auth/logout,/bookings/**,/admin/**}")
+    private List<String> protectedPaths;
+    
+    @Value("${app.session.admin-paths:/admin/**}")
+    private List<String> adminPaths;
+    
+    @Value("${app.session.admin-write-paths:/occupancies/**}")
+    private List<String> adminWritePaths;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = request.getServletPath();
+        Session session = resolve(request);
+        if (session != null) {
+            request.setAttribute(SESSION_ATTRIBUTE, session);
+        }
+        boolean adminOnly = matches(adminPaths, path) || (!isReadOnly(request) && matches(adminWritePaths, path));
+        if (adminOnly || matches(protectedPaths, path)) {
+            if (session == null) {
+                reject(response, HttpStatus.UNAUTHORIZED, "未登录或登录已过期，请重新登录");
+                return;
+            }
+            if (adminOnly) {
+                if (!session.isAdmin()) {
+                    reject(response, HttpStatus.FORBIDDEN, "需要管理员权限");
+                    return;
+                }
+            } else if (!session.isAdmin() && !isOwnUserId(request, session)) {
+                reject(response, HttpStatus.FORBIDDEN, "无权操作其他用户的数据");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+    
+    private Session resolve(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return sessionStore.get(header.substring(BEARER_PREFIX.length()).trim()).orElse(null);
+    }
+    
+    private static boolean isReadOnly(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+    
+    /**
+     * 请求参数中的userId是否为当前用户（没有userId参数的请求，如/auth/me，视为通过）
+     */
+    private static boolean isOwnUserId(HttpServletRequest request, Session session) {
+        String userId = request.getParameter("userId");
+        return userId == null || userId.equals(String.valueOf(session.userId()));
+    }
+    
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(status.value(), message));
+    }
+}
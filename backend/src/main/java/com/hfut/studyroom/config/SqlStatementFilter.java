@@ -0,0 +1,97 @@
+package com.hfut.studyroom.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * 按请求统计SQL
+ * 在响应头X-SQL-Count、X-SQL-Time中返回本次请求执行的SQL条数和JDBC耗时（毫秒），
+ * 并输出一行请求日志；SQL条数超过阈值时以WARN级别输出，便于发现N+1查询
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sql-monitor", name = "enabled", matchIfMissing = true)
+public class SqlStatementFilter extends OncePerRequestFilter {
+    
+    public static final String COUNT_HEADER = "X-SQL-Count";
+    public static final String TIME_HEADER = "X-SQL-Time";
+    
+    private final SqlStatementMonitor sqlStatementMonitor;
+    
+    @Value("${app.sql-monitor.request-warn-statements:30}")
+    private int warnStatements;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementMonitor.Stats stats = sqlStatementMonitor.begin();
+        StatsHeaderResponse wrapped = new StatsHeaderResponse(response, stats);
+        try {
+            chain.doFilter(request, wrapped);
+        } finally {
+            sqlStatementMonitor.end(stats);
+            wrapped.writeHeaders();
+            if (stats.getCount() > warnStatements) {
+                log.warn("{} {}：{}条SQL，JDBC耗时{}ms", request.getMethod(), request.getRequestURI(),
+                        stats.getCount(), format(stats));
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} {}：{}条SQL，JDBC耗时{}ms", request.getMethod(), request.getRequestURI(),
+                        stats.getCount(), format(stats));
+            }
+        }
+    }
+    
+    private static String format(SqlStatementMonitor.Stats stats) {
+        return String.format(Locale.ROOT, "%.2f", stats.getTimeMillis());
+    }
+    
+    /**
+     * 在响应体开始写出（响应头提交）前写入统计头
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+        
+        private final SqlStatementMonitor.Stats stats;
+        private boolean written;
+        
+        StatsHeaderResponse(HttpServletResponse response, SqlStatementMonitor.Stats stats) {
+            super(response);
+            this.stats = stats;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+        
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(COUNT_HEADER, String.valueOf(stats.getCount()));
+            setHeader(TIME_HEADER, format(stats));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.hfut.studyroom.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * SQL执行监控
+ * 统计当前线程上正在进行的HTTP请求（或measure包裹的代码）执行的SQL条数和JDBC耗时，
+ * 并以WARN级别记录超过阈值的慢查询及其绑定参数
+ */
+@Slf4j
+@Component
+public class SqlStatementMonitor implements QueryExecutionListener {
+    
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+    
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+    
+    @Value("${app.sql-monitor.slow-query-ms:100}")
+    private long slowQueryMillis;
+    
+    /**
+     * 执行action并返回其间执行的SQL统计（可嵌套，内层的统计同时计入外层）
+     */
+    public Stats measure(Runnable action) {
+        Stats stats = begin();
+        try {
+            action.run();
+        } finally {
+            end(stats);
+        }
+        return stats;
+    }
+    
+    /**
+     * 开始统计，必须与end成对调用
+     */
+    Stats begin() {
+        Stats stats = new Stats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    void end(Stats stats) {
+        CURRENT.set(stats.parent);
+        if (stats.parent != null) {
+            stats.parent.count += stats.count;
+            stats.parent.nanos += stats.nanos;
+        }
+    }
+    
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.startedAt = System.nanoTime();
+        }
+    }
+    
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.count++;
+            stats.nanos += System.nanoTime() - stats.startedAt;
+        }
+        if (execInfo.getElapsedTime() < slowQueryMillis) {
+            return;
+        }
+        if (execInfo.isBatch()) {
+            // 批量执行的参数过多，只记录SQL和批大小
+            log.warn("慢批量执行（{}ms，{}条）：{}", execInfo.getElapsedTime(), execInfo.getBatchSize(),
+                    queryInfoList.get(0).getQuery());
+        } else {
+            log.warn("慢查询（{}ms）：{}", execInfo.getElapsedTime(),
+                    logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+        }
+    }
+    
+    /**
+     * SQL执行统计
+     */
+    public static final class Stats {
+        
+        private final Stats parent;
+        private int count;
+        private long nanos;
+        private long startedAt;
+        
+        private Stats(Stats parent) {
+            this.parent = parent;
+        }
+        
+        /**
+         * 执行的SQL条数（批量执行算一条）
+         */
+        public int getCount() {
+            return count;
+        }
+        
+        /**
+         * JDBC执行耗时（毫秒）
+         */
+        public double getTimeMillis() {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
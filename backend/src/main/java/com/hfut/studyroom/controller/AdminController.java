@@ -1,13 +1,19 @@
 package com.hfut.studyroom.controller;
 
+import com.hfut.studyroom.config.SessionFilter;
 import com.hfut.studyroom.dto.ApiResponse;
 import com.hfut.studyroom.dto.BlacklistDTO;
-import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.BookingPageDTO;
+import com.hfut.studyroom.dto.BookingSearchRequest;
 import com.hfut.studyroom.dto.UserDTO;
 import com.hfut.studyroom.entity.*;
+import com.hfut.studyroom.repository.BlacklistRepository.BlacklistView;
 import com.hfut.studyroom.service.AdminService;
+import com.hfut.studyroom.service.SessionStore.Session;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -55,26 +61,38 @@ public class AdminController {
     }
     
     /**
-     * 初始化教室座位
+     * 初始化教室座位（可指定布局模板，默认10行10列）
      */
     @PostMapping("/classrooms/{id}/seats/init")
-    public ApiResponse<Void> initClassroomSeats(@PathVariable Long id) {
-        adminService.initClassroomSeats(id);
-        return ApiResponse.success("初始化成功，已生成100个座位", null);
+    public ApiResponse<Integer> initClassroomSeats(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long templateId
+    ) {
+        int count = adminService.initClassroomSeats(id, templateId);
+        return ApiResponse.success("初始化成功，已生成" + count + "个座位", count);
+    }
+    
+    /**
+     * 初始化教学楼内所有尚无座位的教室（可指定布局模板，默认10行10列）
+     */
+    @PostMapping("/buildings/{id}/seats/init")
+    public ApiResponse<Integer> initBuildingSeats(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long templateId
+    ) {
+        int count = adminService.initBuildingSeats(id, templateId);
+        return ApiResponse.success("初始化成功，已生成" + count + "个座位", count);
     }
     
     // ==================== 预约管理 ====================
     
     /**
-     * 获取所有预约记录
+     * 按条件分页查询预约记录
+     * 支持按教学楼、教室、日期范围、状态、用户过滤，使用上一页返回的nextCursor翻页
      */
     @GetMapping("/bookings")
-    public ApiResponse<List<BookingDTO>> getAllBookings() {
-        List<Booking> bookings = adminService.getAllBookings();
-        List<BookingDTO> bookingDTOs = bookings.stream()
-                .map(BookingDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ApiResponse.success(bookingDTOs);
+    public ApiResponse<BookingPageDTO> searchBookings(BookingSearchRequest request) {
+        return ApiResponse.success(adminService.searchBookings(request));
     }
     
     /**
@@ -86,6 +104,27 @@ public class AdminController {
         return ApiResponse.success("删除成功", null);
     }
     
+    /**
+     * 批量取消教室某日的待签到预约
+     */
+    @PostMapping("/bookings/cancel")
+    public ApiResponse<Integer> cancelClassroomBookings(
+            @RequestParam Long classroomId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date) {
+        int affected = adminService.cancelClassroomBookings(classroomId, date);
+        return ApiResponse.success("已取消" + affected + "条预约", affected);
+    }
+    
+    /**
+     * 清理指定日期之前已结束的预约记录
+     */
+    @DeleteMapping("/bookings/cleanup")
+    public ApiResponse<Integer> cleanupBookings(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate before) {
+        int affected = adminService.cleanupBookings(before);
+        return ApiResponse.success("已清理" + affected + "条预约记录", affected);
+    }
+    
     // ==================== 用户管理 ====================
     
     /**
@@ -120,23 +159,25 @@ public class AdminController {
      */
     @GetMapping("/blacklist")
     public ApiResponse<List<BlacklistDTO>> getAllBlacklist() {
-        List<Blacklist> blacklist = adminService.getAllBlacklist();
+        List<BlacklistView> blacklist = adminService.getAllBlacklist();
         List<BlacklistDTO> blacklistDTOs = blacklist.stream()
-                .map(BlacklistDTO::fromEntity)
+                .map(BlacklistDTO::fromView)
                 .collect(Collectors.toList());
         return ApiResponse.success(blacklistDTOs);
     }
     
     /**
-     * 添加黑名单
+     * 添加黑名单（操作人为当前登录的管理员）
+     * @param days 拉黑天数（可选，不传表示永久）
      */
     @PostMapping("/blacklist")
     public ApiResponse<Blacklist> addBlacklist(
             @RequestParam Long userId,
             @RequestParam String reason,
-            @RequestParam Long adminId
+            @RequestParam(required = false) Integer days,
+            @RequestAttribute(SessionFilter.SESSION_ATTRIBUTE) Session session
     ) {
-        Blacklist blacklist = adminService.addBlacklist(userId, reason, adminId);
+        Blacklist blacklist = adminService.addBlacklist(userId, reason, session.userId(), days);
         return ApiResponse.success("添加成功", blacklist);
     }
     
@@ -159,4 +200,12 @@ public class AdminController {
         Map<String, Object> stats = adminService.getStatistics();
         return ApiResponse.success(stats);
     }
+    
+    /**
+     * 获取基础数据缓存命中统计
+     */
+    @GetMapping("/cache/stats")
+    public ApiResponse<Map<String, Map<String, Object>>> getReferenceCacheStats() {
+        return ApiResponse.success(adminService.getReferenceCacheStats());
+    }
 }
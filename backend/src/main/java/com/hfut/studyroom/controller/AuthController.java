@@ -1,15 +1,20 @@
 package com.hfut.studyroom.controller;
 
+import com.hfut.studyroom.config.SessionFilter;
 import com.hfut.studyroom.dto.ApiResponse;
 import com.hfut.studyroom.dto.LoginRequest;
 import com.hfut.studyroom.dto.LoginResponse;
 import com.hfut.studyroom.dto.RegisterRequest;
 import com.hfut.studyroom.entity.User;
 import com.hfut.studyroom.service.AuthService;
+import com.hfut.studyroom.service.SessionStore.Session;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 认证控制器
  */
@@ -32,11 +37,31 @@ public class AuthController {
     }
     
     /**
-     * 用户登录
+     * 用户登录（异步返回，密码校验期间不占用请求线程）
      */
     @PostMapping("/login")
-    public ApiResponse<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
-        LoginResponse loginResponse = authService.login(request);
-        return ApiResponse.success("登录成功", loginResponse);
+    public CompletableFuture<ApiResponse<LoginResponse>> login(
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest
+    ) {
+        return authService.login(request, httpRequest.getRemoteAddr())
+                .thenApply(loginResponse -> ApiResponse.success("登录成功", loginResponse));
+    }
+    
+    /**
+     * 退出登录
+     */
+    @PostMapping("/logout")
+    public ApiResponse<Void> logout(@RequestAttribute(SessionFilter.SESSION_ATTRIBUTE) Session session) {
+        authService.logout(session.token());
+        return ApiResponse.success("已退出登录", null);
+    }
+    
+    /**
+     * 获取当前登录用户信息
+     */
+    @GetMapping("/me")
+    public ApiResponse<User> me(@RequestAttribute(SessionFilter.SESSION_ATTRIBUTE) Session session) {
+        return ApiResponse.success(authService.getCurrentUser(session.userId()));
     }
 }
@@ -3,12 +3,16 @@ package com.hfut.studyroom.controller;
 import com.hfut.studyroom.dto.ApiResponse;
 import com.hfut.studyroom.dto.BookingDTO;
 import com.hfut.studyroom.dto.BookingRequest;
+import com.hfut.studyroom.dto.BookingTicketDTO;
 import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.repository.BookingRepository.BookingView;
+import com.hfut.studyroom.service.BookingAdmissionQueue;
 import com.hfut.studyroom.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +24,7 @@ import java.util.stream.Collectors;
 public class BookingController {
     
     private final BookingService bookingService;
+    private final BookingAdmissionQueue bookingAdmissionQueue;
     
     /**
      * 创建预约
@@ -34,14 +39,41 @@ public class BookingController {
         return ApiResponse.success("预约成功，请在15分钟内签到", BookingDTO.fromEntity(booking));
     }
     
+    /**
+     * 排队预约（需开启app.booking.queue.enabled）
+     * 立即返回票据，预约结果通过票据查询
+     */
+    @PostMapping("/tickets")
+    public ApiResponse<BookingTicketDTO> submitBookingTicket(
+            @RequestParam Long userId,
+            @Valid @RequestBody BookingRequest request
+    ) {
+        BookingTicketDTO ticket = bookingAdmissionQueue.submit(userId, request);
+        return ApiResponse.success("已进入排队", ticket);
+    }
+    
+    /**
+     * 查询排队预约结果
+     * @param waitMillis 结果未出时最多等待的毫秒数（默认立即返回）
+     */
+    @GetMapping("/tickets/{ticketId}")
+    public CompletableFuture<ApiResponse<BookingTicketDTO>> getBookingTicket(
+            @PathVariable String ticketId,
+            @RequestParam Long userId,
+            @RequestParam(defaultValue = "0") long waitMillis
+    ) {
+        return bookingAdmissionQueue.poll(ticketId, userId, waitMillis)
+                .thenApply(ApiResponse::success);
+    }
+    
     /**
      * 获取我的预约列表
      */
     @GetMapping("/my")
     public ApiResponse<List<BookingDTO>> getMyBookings(@RequestParam Long userId) {
-        List<Booking> bookings = bookingService.getMyBookings(userId);
+        List<BookingView> bookings = bookingService.getMyBookings(userId);
         List<BookingDTO> bookingDTOs = bookings.stream()
-                .map(BookingDTO::fromEntity)
+                .map(BookingDTO::fromView)
                 .collect(Collectors.toList());
         return ApiResponse.success(bookingDTOs);
     }
@@ -1,10 +1,17 @@
 package com.hfut.studyroom.controller;
 
 import com.hfut.studyroom.dto.ApiResponse;
+import com.hfut.studyroom.dto.ClassroomSeatSummaryDTO;
 import com.hfut.studyroom.entity.Building;
-import com.hfut.studyroom.repository.BuildingRepository;
+import com.hfut.studyroom.service.ReferenceDataCache;
+import com.hfut.studyroom.service.SeatMapVersions;
+import com.hfut.studyroom.service.SeatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 /**
@@ -15,14 +22,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BuildingController {
     
-    private final BuildingRepository buildingRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SeatMapVersions seatMapVersions;
+    private final SeatService seatService;
     
     /**
-     * 获取所有教学楼列表
+     * 获取所有教学楼列表（ETag未变化时返回304）
      */
     @GetMapping
-    public ApiResponse<List<Building>> getAllBuildings() {
-        List<Building> buildings = buildingRepository.findAll();
+    public ApiResponse<List<Building>> getAllBuildings(WebRequest webRequest) {
+        if (webRequest.checkNotModified(seatMapVersions.referenceTag())) {
+            return null;
+        }
+        List<Building> buildings = referenceDataCache.getBuildings();
         return ApiResponse.success(buildings);
     }
     
@@ -30,9 +42,29 @@ public class BuildingController {
      * 获取教学楼详情
      */
     @GetMapping("/{id}")
-    public ApiResponse<Building> getBuildingById(@PathVariable Long id) {
-        Building building = buildingRepository.findById(id)
+    public ApiResponse<Building> getBuildingById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(seatMapVersions.referenceTag())) {
+            return null;
+        }
+        Building building = referenceDataCache.getBuilding(id)
                 .orElseThrow(() -> new RuntimeException("教学楼不存在"));
         return ApiResponse.success(building);
     }
+    
+    /**
+     * 获取教学楼各教室在指定时间段的空闲/总座位数（一次请求得到整栋楼概览，ETag未变化时返回304）
+     */
+    @GetMapping("/{id}/seat-summary")
+    public ApiResponse<List<ClassroomSeatSummaryDTO>> getSeatSummary(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime,
+            WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(seatMapVersions.buildingTag(id, date))) {
+            return null;
+        }
+        return ApiResponse.success(seatService.getBuildingSeatSummary(id, date, startTime, endTime));
+    }
 }
@@ -3,12 +3,18 @@ package com.hfut.studyroom.controller;
 import com.hfut.studyroom.dto.ApiResponse;
 import com.hfut.studyroom.dto.ClassroomDTO;
 import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.dto.SeatMapDTO;
 import com.hfut.studyroom.entity.Classroom;
-import com.hfut.studyroom.repository.ClassroomRepository;
+import com.hfut.studyroom.service.ReferenceDataCache;
+import com.hfut.studyroom.service.SeatMapVersions;
 import com.hfut.studyroom.service.SeatService;
+import com.hfut.studyroom.service.SeatStatusBroadcaster;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -22,8 +28,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ClassroomController {
     
-    private final ClassroomRepository classroomRepository;
+    private final ReferenceDataCache referenceDataCache;
     private final SeatService seatService;
+    private final SeatStatusBroadcaster seatStatusBroadcaster;
+    private final SeatMapVersions seatMapVersions;
     
     /**
      * 获取教室列表
@@ -31,13 +39,17 @@ public class ClassroomController {
      */
     @GetMapping
     public ApiResponse<List<ClassroomDTO>> getClassrooms(
-            @RequestParam(required = false) Long buildingId
+            @RequestParam(required = false) Long buildingId,
+            WebRequest webRequest
     ) {
+        if (webRequest.checkNotModified(seatMapVersions.referenceTag())) {
+            return null;
+        }
         List<Classroom> classrooms;
         if (buildingId != null) {
-            classrooms = classroomRepository.findByBuildingId(buildingId);
+            classrooms = referenceDataCache.getClassrooms(buildingId);
         } else {
-            classrooms = classroomRepository.findAll();
+            classrooms = referenceDataCache.getAllClassrooms();
         }
         
         List<ClassroomDTO> classroomDTOs = classrooms.stream()
@@ -51,23 +63,67 @@ public class ClassroomController {
      * 获取教室详情
      */
     @GetMapping("/{id}")
-    public ApiResponse<ClassroomDTO> getClassroomById(@PathVariable Long id) {
-        Classroom classroom = classroomRepository.findById(id)
+    public ApiResponse<ClassroomDTO> getClassroomById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(seatMapVersions.referenceTag())) {
+            return null;
+        }
+        Classroom classroom = referenceDataCache.getClassroom(id)
                 .orElseThrow(() -> new RuntimeException("教室不存在"));
         return ApiResponse.success(ClassroomDTO.fromEntity(classroom));
     }
     
     /**
      * 获取教室座位列表（带预约状态）
+     * ETag由基础数据版本和该教室当天的座位图版本组成，未变化时直接返回304，不查询座位状态
      */
     @GetMapping("/{id}/seats")
     public ApiResponse<List<SeatDTO>> getClassroomSeats(
             @PathVariable Long id,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
             @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime,
+            WebRequest webRequest
     ) {
+        boolean withStatus = date != null && startTime != null && endTime != null;
+        if (webRequest.checkNotModified(withStatus
+                ? seatMapVersions.classroomTag(id, date)
+                : seatMapVersions.referenceTag())) {
+            return null;
+        }
         List<SeatDTO> seats = seatService.getClassroomSeatsWithStatus(id, date, startTime, endTime);
         return ApiResponse.success(seats);
     }
+    
+    /**
+     * 获取教室座位图（紧凑格式，请求头 Accept: application/vnd.studyroom.seat-map+json）
+     */
+    @GetMapping(value = "/{id}/seats", produces = SeatMapDTO.MEDIA_TYPE)
+    public ApiResponse<SeatMapDTO> getClassroomSeatMap(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime,
+            WebRequest webRequest
+    ) {
+        boolean withStatus = date != null && startTime != null && endTime != null;
+        String etag = withStatus ? seatMapVersions.classroomTag(id, date) : seatMapVersions.referenceTag();
+        if (webRequest.checkNotModified(etag + SeatMapDTO.ETAG_SUFFIX)) {
+            return null;
+        }
+        return ApiResponse.success(seatService.getClassroomSeatMap(id, date, startTime, endTime));
+    }
+    
+    /**
+     * 订阅教室座位状态变化（Server-Sent Events）
+     * 先推送snapshot事件 {"occupied":[座位ID...]}，之后座位状态变化时推送seat事件 {"seatId":1,"status":"OCCUPIED"}
+     */
+    @GetMapping(value = "/{id}/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamClassroomSeats(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime
+    ) {
+        return seatStatusBroadcaster.subscribe(id, date, startTime, endTime);
+    }
 }
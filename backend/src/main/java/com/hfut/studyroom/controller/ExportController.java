@@ -0,0 +1,67 @@
+package com.hfut.studyroom.controller;
+
+import com.hfut.studyroom.service.ExportService;
+import com.hfut.studyroom.service.ExportService.ExportFormat;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 数据导出控制器（管理员）
+ * 支持CSV和NDJSON（每行一个JSON对象）两种格式，可选gzip压缩
+ */
+@RestController
+@RequestMapping("/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+    
+    private final ExportService exportService;
+    
+    /**
+     * 导出全部预约记录
+     */
+    @GetMapping("/bookings")
+    public void exportBookings(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        try (OutputStream out = openExport(response, "bookings", exportFormat, gzip)) {
+            exportService.exportBookings(exportFormat, out);
+        }
+    }
+    
+    /**
+     * 导出全部教室占用记录
+     */
+    @GetMapping("/occupancies")
+    public void exportOccupancies(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response
+    ) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        try (OutputStream out = openExport(response, "occupancies", exportFormat, gzip)) {
+            exportService.exportOccupancies(exportFormat, out);
+        }
+    }
+    
+    private OutputStream openExport(
+            HttpServletResponse response,
+            String name,
+            ExportFormat format,
+            boolean gzip
+    ) throws IOException {
+        String filename = name + "-" + LocalDate.now() + format.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : format.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        OutputStream out = response.getOutputStream();
+        return gzip ? new GZIPOutputStream(out, 8192) : out;
+    }
+}
@@ -2,11 +2,15 @@ package com.hfut.studyroom.controller;
 
 import com.hfut.studyroom.dto.ApiResponse;
 import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.dto.SeatMapDTO;
 import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.service.SeatMapVersions;
 import com.hfut.studyroom.service.SeatService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
 public class SeatController {
     
     private final SeatService seatService;
+    private final SeatMapVersions seatMapVersions;
     
     /**
      * 获取可用座位列表
@@ -29,6 +34,7 @@ public class SeatController {
      * @param date 日期
      * @param startTime 开始时间
      * @param endTime 结束时间
+     * 响应带ETag（教室或教学楼当天的座位图版本），未变化时返回304
      */
     @GetMapping("/available")
     public ApiResponse<List<SeatDTO>> getAvailableSeats(
@@ -36,8 +42,19 @@ public class SeatController {
             @RequestParam(required = false) Long classroomId,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
             @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
-            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime,
+            WebRequest webRequest
     ) {
+        if (classroomId != null) {
+            if (webRequest.checkNotModified(seatMapVersions.classroomTag(classroomId, date))) {
+                return null;
+            }
+        } else if (buildingId != null) {
+            if (webRequest.checkNotModified(seatMapVersions.buildingTag(buildingId, date))) {
+                return null;
+            }
+        }
+        
         List<Seat> seats;
         
         if (classroomId != null) {
@@ -47,7 +64,7 @@ public class SeatController {
             // 查询指定教学楼的可用座位
             seats = seatService.getAvailableSeats(buildingId, date, startTime, endTime);
         } else {
-            throw new RuntimeException("请指定教学楼或教室");
+            throw new BusinessException("请指定教学楼或教室");
         }
         
         // 转换为DTO
@@ -57,4 +74,34 @@ public class SeatController {
         
         return ApiResponse.success(seatDTOs);
     }
+    
+    /**
+     * 获取可用座位列表（紧凑格式，请求头 Accept: application/vnd.studyroom.seat-map+json）
+     * 按教室分组，每个教室的信息只出现一次
+     */
+    @GetMapping(value = "/available", produces = SeatMapDTO.MEDIA_TYPE)
+    public ApiResponse<List<SeatMapDTO>> getAvailableSeatMaps(
+            @RequestParam(required = false) Long buildingId,
+            @RequestParam(required = false) Long classroomId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime startTime,
+            @RequestParam @DateTimeFormat(pattern = "HH:mm:ss") LocalTime endTime,
+            WebRequest webRequest
+    ) {
+        List<Seat> seats;
+        if (classroomId != null) {
+            if (webRequest.checkNotModified(seatMapVersions.classroomTag(classroomId, date) + SeatMapDTO.ETAG_SUFFIX)) {
+                return null;
+            }
+            seats = seatService.getAvailableSeatsByClassroom(classroomId, date, startTime, endTime);
+        } else if (buildingId != null) {
+            if (webRequest.checkNotModified(seatMapVersions.buildingTag(buildingId, date) + SeatMapDTO.ETAG_SUFFIX)) {
+                return null;
+            }
+            seats = seatService.getAvailableSeats(buildingId, date, startTime, endTime);
+        } else {
+            throw new BusinessException("请指定教学楼或教室");
+        }
+        return ApiResponse.success(SeatMapDTO.fromAvailableSeats(seats));
+    }
 }
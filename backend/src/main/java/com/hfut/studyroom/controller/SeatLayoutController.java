@@ -0,0 +1,68 @@
+package com.hfut.studyroom.controller;
+
+import com.hfut.studyroom.dto.ApiResponse;
+import com.hfut.studyroom.dto.SeatLayoutApplyRequest;
+import com.hfut.studyroom.dto.SeatLayoutApplyResultDTO;
+import com.hfut.studyroom.entity.SeatLayoutTemplate;
+import com.hfut.studyroom.service.SeatLayoutService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * 座位布局模板控制器（管理员）
+ */
+@RestController
+@RequestMapping("/admin/seat-layouts")
+@RequiredArgsConstructor
+public class SeatLayoutController {
+    
+    private final SeatLayoutService seatLayoutService;
+    
+    /**
+     * 获取全部布局模板
+     */
+    @GetMapping
+    public ApiResponse<List<SeatLayoutTemplate>> getTemplates() {
+        return ApiResponse.success(seatLayoutService.getTemplates());
+    }
+    
+    /**
+     * 创建布局模板
+     */
+    @PostMapping
+    public ApiResponse<SeatLayoutTemplate> createTemplate(@RequestBody SeatLayoutTemplate template) {
+        return ApiResponse.success("创建成功", seatLayoutService.createTemplate(template));
+    }
+    
+    /**
+     * 更新布局模板
+     */
+    @PutMapping("/{id}")
+    public ApiResponse<SeatLayoutTemplate> updateTemplate(
+            @PathVariable Long id,
+            @RequestBody SeatLayoutTemplate template
+    ) {
+        return ApiResponse.success("更新成功", seatLayoutService.updateTemplate(id, template));
+    }
+    
+    /**
+     * 删除布局模板
+     */
+    @DeleteMapping("/{id}")
+    public ApiResponse<Void> deleteTemplate(@PathVariable Long id) {
+        seatLayoutService.deleteTemplate(id);
+        return ApiResponse.success("删除成功", null);
+    }
+    
+    /**
+     * 将布局模板应用到教室（重新排列座位，位置不变的座位保留原座位ID和预约）
+     */
+    @PostMapping("/{id}/apply")
+    public ApiResponse<SeatLayoutApplyResultDTO> apply(
+            @PathVariable Long id,
+            @RequestBody SeatLayoutApplyRequest request
+    ) {
+        return ApiResponse.success("应用成功", seatLayoutService.apply(id, request));
+    }
+}
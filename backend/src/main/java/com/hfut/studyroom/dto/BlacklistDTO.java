@@ -2,6 +2,7 @@ package com.hfut.studyroom.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hfut.studyroom.entity.Blacklist;
+import com.hfut.studyroom.repository.BlacklistRepository.BlacklistView;
 import lombok.Data;
 
 import java.time.format.DateTimeFormatter;
@@ -19,6 +20,11 @@ public class BlacklistDTO {
     private String reason;
     private String createdByUsername;
     
+    /**
+     * 到期时间（为空表示永久）
+     */
+    private String expiresAt;
+    
     @JsonProperty("createdTime")
     private String createdAt;
     
@@ -37,7 +43,28 @@ public class BlacklistDTO {
         if (blacklist.getCreatedBy() != null) {
             dto.setCreatedByUsername(blacklist.getCreatedBy().getUsername());
         }
+        if (blacklist.getExpiresAt() != null) {
+            dto.setExpiresAt(blacklist.getExpiresAt().format(FORMATTER));
+        }
         dto.setCreatedAt(blacklist.getCreatedAt().format(FORMATTER));
         return dto;
     }
+    
+    /**
+     * 从投影查询结果转换为DTO
+     */
+    public static BlacklistDTO fromView(BlacklistView view) {
+        BlacklistDTO dto = new BlacklistDTO();
+        dto.setId(view.getId());
+        dto.setUserId(view.getUserId());
+        dto.setUsername(view.getUsername());
+        dto.setRealName(view.getRealName());
+        dto.setReason(view.getReason());
+        dto.setCreatedByUsername(view.getCreatedByUsername());
+        if (view.getExpiresAt() != null) {
+            dto.setExpiresAt(view.getExpiresAt().format(FORMATTER));
+        }
+        dto.setCreatedAt(view.getCreatedAt().format(FORMATTER));
+        return dto;
+    }
 }
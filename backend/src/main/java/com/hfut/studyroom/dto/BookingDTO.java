@@ -2,6 +2,7 @@ package com.hfut.studyroom.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.repository.BookingRepository.BookingView;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -53,6 +54,25 @@ public class BookingDTO {
         return dto;
     }
     
+    /**
+     * 从投影查询结果转换为DTO
+     */
+    public static BookingDTO fromView(BookingView view) {
+        BookingDTO dto = new BookingDTO();
+        dto.setId(view.getId());
+        dto.setUserId(view.getUserId());
+        dto.setUsername(view.getUsername());
+        dto.setSeatId(view.getSeatId());
+        dto.setSeatNumber(view.getSeatNumber());
+        dto.setClassroomName(view.getRoomNumber() + "教室");
+        dto.setBuildingName(view.getBuildingName());
+        dto.setStartTime(LocalDateTime.of(view.getBookingDate(), view.getStartTime()).format(FORMATTER));
+        dto.setEndTime(LocalDateTime.of(view.getBookingDate(), view.getEndTime()).format(FORMATTER));
+        dto.setStatus(mapStatus(view.getStatus()));
+        dto.setCreatedAt(view.getCreatedAt().format(FORMATTER));
+        return dto;
+    }
+    
     /**
      * 状态映射（保持与后端一致）
      */
@@ -0,0 +1,20 @@
+package com.hfut.studyroom.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 预约分页结果（按创建时间倒序）
+ */
+@Data
+public class BookingPageDTO {
+    
+    private List<BookingDTO> items;
+    
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+    
+    private Boolean hasMore;
+}
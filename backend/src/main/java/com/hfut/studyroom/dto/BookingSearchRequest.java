@@ -0,0 +1,39 @@
+package com.hfut.studyroom.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+
+/**
+ * 管理端预约查询条件（各条件均可选）
+ */
+@Data
+public class BookingSearchRequest {
+    
+    private Long buildingId;
+    
+    private Long classroomId;
+    
+    /**
+     * 预约日期范围（含两端）
+     */
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+    
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+    
+    private String status;
+    
+    private Long userId;
+    
+    /**
+     * 上一页返回的nextCursor，为空时查询第一页
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数（1-100）
+     */
+    private Integer size;
+}
@@ -0,0 +1,49 @@
+package com.hfut.studyroom.dto;
+
+import lombok.Data;
+
+/**
+ * 排队预约票据传输对象
+ */
+@Data
+public class BookingTicketDTO {
+    
+    private String ticketId;
+    
+    /**
+     * 票据状态
+     * QUEUED-排队中
+     * SUCCESS-预约成功
+     * FAILED-预约失败
+     */
+    private String status;
+    
+    private String message;
+    
+    private BookingDTO booking;
+    
+    public static BookingTicketDTO queued(String ticketId) {
+        BookingTicketDTO dto = new BookingTicketDTO();
+        dto.setTicketId(ticketId);
+        dto.setStatus("QUEUED");
+        dto.setMessage("排队处理中");
+        return dto;
+    }
+    
+    public static BookingTicketDTO success(String ticketId, BookingDTO booking) {
+        BookingTicketDTO dto = new BookingTicketDTO();
+        dto.setTicketId(ticketId);
+        dto.setStatus("SUCCESS");
+        dto.setMessage("预约成功，请在15分钟内签到");
+        dto.setBooking(booking);
+        return dto;
+    }
+    
+    public static BookingTicketDTO failed(String ticketId, String message) {
+        BookingTicketDTO dto = new BookingTicketDTO();
+        dto.setTicketId(ticketId);
+        dto.setStatus("FAILED");
+        dto.setMessage(message);
+        return dto;
+    }
+}
@@ -2,6 +2,7 @@ package com.hfut.studyroom.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.hfut.studyroom.entity.ClassroomOccupancy;
+import com.hfut.studyroom.repository.ClassroomOccupancyRepository.OccupancyView;
 import lombok.Data;
 
 import java.time.LocalDate;
@@ -56,6 +57,27 @@ public class ClassroomOccupancyDTO {
         return dto;
     }
     
+    /**
+     * 从投影查询结果转换为DTO
+     */
+    public static ClassroomOccupancyDTO fromView(OccupancyView view) {
+        ClassroomOccupancyDTO dto = new ClassroomOccupancyDTO();
+        dto.setId(view.getId());
+        dto.setClassroomId(view.getClassroomId());
+        dto.setClassroomName(view.getRoomNumber() + "教室");
+        dto.setBuildingName(view.getBuildingName());
+        dto.setOccupancyDate(view.getOccupancyDate().format(DATE_FORMATTER));
+        dto.setStartTime(view.getStartTime().format(TIME_FORMATTER));
+        dto.setEndTime(view.getEndTime().format(TIME_FORMATTER));
+        dto.setReason(view.getReason());
+        dto.setType(mapType(view.getType()));
+        dto.setOccupiedBy(view.getOccupiedBy());
+        dto.setStatus(mapStatus(view.getStatus()));
+        dto.setRemarks(view.getRemarks());
+        dto.setCreatedAt(view.getCreatedAt().format(DATETIME_FORMATTER));
+        return dto;
+    }
+    
     /**
      * 类型映射
      */
@@ -0,0 +1,35 @@
+package com.hfut.studyroom.dto;
+
+import com.hfut.studyroom.entity.Classroom;
+import lombok.Data;
+
+/**
+ * 教室座位统计传输对象（教学楼概览用）
+ */
+@Data
+public class ClassroomSeatSummaryDTO {
+    
+    private Long classroomId;
+    private String roomNumber;
+    private Integer floor;
+    private String status;
+    private Integer totalSeats;
+    private Integer freeSeats;
+    
+    /**
+     * 教室在该时间段被占用（上课、会议等），此时freeSeats为0
+     */
+    private Boolean occupied;
+    
+    public static ClassroomSeatSummaryDTO of(Classroom classroom, int totalSeats, int freeSeats, boolean occupied) {
+        ClassroomSeatSummaryDTO dto = new ClassroomSeatSummaryDTO();
+        dto.setClassroomId(classroom.getId());
+        dto.setRoomNumber(classroom.getRoomNumber());
+        dto.setFloor(classroom.getFloor());
+        dto.setStatus(classroom.getStatus());
+        dto.setTotalSeats(totalSeats);
+        dto.setFreeSeats(freeSeats);
+        dto.setOccupied(occupied);
+        return dto;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hfut.studyroom.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 应用座位布局的目标教室（三选一，按classroomIds、buildingId、allClassrooms的顺序生效）
+ */
+@Data
+public class SeatLayoutApplyRequest {
+    
+    private List<Long> classroomIds;
+    
+    private Long buildingId;
+    
+    /**
+     * 应用到全校所有教室
+     */
+    private Boolean allClassrooms;
+}
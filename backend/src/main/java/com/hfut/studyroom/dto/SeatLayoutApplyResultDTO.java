@@ -0,0 +1,37 @@
+package com.hfut.studyroom.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 应用座位布局的结果
+ */
+@Data
+@AllArgsConstructor
+public class SeatLayoutApplyResultDTO {
+    
+    /**
+     * 处理的教室数
+     */
+    private int classrooms;
+    
+    /**
+     * 新增的座位数
+     */
+    private int created;
+    
+    /**
+     * 位置不变、座位号改变的座位数
+     */
+    private int renamed;
+    
+    /**
+     * 删除的座位数
+     */
+    private int removed;
+    
+    /**
+     * 未改变的座位数（保留原座位ID和预约）
+     */
+    private int unchanged;
+}
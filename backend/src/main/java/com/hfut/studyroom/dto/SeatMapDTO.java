@@ -0,0 +1,102 @@
+package com.hfut.studyroom.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hfut.studyroom.entity.Classroom;
+import com.hfut.studyroom.entity.Seat;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 紧凑座位图传输对象
+ * 请求头 Accept 为 {@link #MEDIA_TYPE} 时返回：教室信息只出现一次，座位ID、座位号、行、列为按座位顺序排列的并列数组，
+ * 状态为游程编码字符串，如 "12A3O85A" 表示前12个座位可用、接着3个占用、再85个可用
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SeatMapDTO {
+    
+    public static final String MEDIA_TYPE = "application/vnd.studyroom.seat-map+json";
+    
+    /**
+     * 紧凑格式ETag后缀，与普通JSON格式的ETag区分
+     */
+    public static final String ETAG_SUFFIX = "-m";
+    
+    private Long classroomId;
+    private String classroomName;
+    private Long buildingId;
+    private String buildingName;
+    private long[] ids;
+    private String[] seatNumbers;
+    private int[] rows;
+    private int[] cols;
+    
+    /**
+     * 游程编码的座位状态（A可用，O占用）；可用座位列表中省略
+     */
+    private String status;
+    
+    /**
+     * 教室座位图，occupied[i]对应seats[i]
+     */
+    public static SeatMapDTO of(Classroom classroom, List<Seat> seats, boolean[] occupied) {
+        SeatMapDTO dto = of(classroom, seats);
+        dto.setStatus(encodeStatus(occupied));
+        return dto;
+    }
+    
+    /**
+     * 按教室分组的可用座位（保持座位原有顺序）
+     */
+    public static List<SeatMapDTO> fromAvailableSeats(List<Seat> seats) {
+        Map<Long, List<Seat>> grouped = new LinkedHashMap<>();
+        for (Seat seat : seats) {
+            grouped.computeIfAbsent(seat.getClassroom().getId(), id -> new ArrayList<>()).add(seat);
+        }
+        List<SeatMapDTO> result = new ArrayList<>(grouped.size());
+        grouped.values().forEach(group -> result.add(of(group.get(0).getClassroom(), group)));
+        return result;
+    }
+    
+    private static SeatMapDTO of(Classroom classroom, List<Seat> seats) {
+        SeatMapDTO dto = new SeatMapDTO();
+        dto.setClassroomId(classroom.getId());
+        dto.setClassroomName(classroom.getRoomNumber() + "教室");
+        dto.setBuildingId(classroom.getBuilding().getId());
+        dto.setBuildingName(classroom.getBuilding().getName());
+        int n = seats.size();
+        long[] ids = new long[n];
+        String[] seatNumbers = new String[n];
+        int[] rows = new int[n];
+        int[] cols = new int[n];
+        for (int i = 0; i < n; i++) {
+            Seat seat = seats.get(i);
+            ids[i] = seat.getId();
+            seatNumbers[i] = seat.getSeatNumber();
+            rows[i] = seat.getRowNum();
+            cols[i] = seat.getColNum();
+        }
+        dto.setIds(ids);
+        dto.setSeatNumbers(seatNumbers);
+        dto.setRows(rows);
+        dto.setCols(cols);
+        return dto;
+    }
+    
+    private static String encodeStatus(boolean[] occupied) {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < occupied.length) {
+            int runStart = i;
+            while (i < occupied.length && occupied[i] == occupied[runStart]) {
+                i++;
+            }
+            sb.append(i - runStart).append(occupied[runStart] ? 'O' : 'A');
+        }
+        return sb.toString();
+    }
+}
@@ -36,6 +36,12 @@ public class Blacklist {
     @JoinColumn(name = "created_by")
     private User createdBy;
     
+    /**
+     * 到期时间（为空表示永久拉黑，到期后自动失效）
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
     /**
      * 创建时间
      */
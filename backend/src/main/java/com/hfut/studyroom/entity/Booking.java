@@ -11,7 +11,16 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "booking")
+@Table(name = "booking", indexes = {
+        @Index(name = "idx_booking_status_start_at", columnList = "status, start_at"),
+        @Index(name = "idx_booking_status_end_at", columnList = "status, end_at"),
+        @Index(name = "idx_booking_created_at_id", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_booking_status_created_at_id", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_booking_user_created_at_id", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_booking_seat_date_status", columnList = "seat_id, booking_date, status"),
+        @Index(name = "idx_booking_user_date_status", columnList = "user_id, booking_date, status"),
+        @Index(name = "idx_booking_status_date", columnList = "status, booking_date")
+})
 public class Booking {
     
     @Id
@@ -50,6 +59,18 @@ public class Booking {
     @Column(name = "end_time", nullable = false)
     private LocalTime endTime;
     
+    /**
+     * 开始时刻（booking_date + start_time，便于按时间范围走索引查询）
+     */
+    @Column(name = "start_at")
+    private LocalDateTime startAt;
+    
+    /**
+     * 结束时刻（booking_date + end_time）
+     */
+    @Column(name = "end_at")
+    private LocalDateTime endAt;
+    
     /**
      * 预约状态
      * PENDING-待签到
@@ -82,5 +103,16 @@ public class Booking {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        syncTimestamps();
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        syncTimestamps();
+    }
+    
+    private void syncTimestamps() {
+        startAt = LocalDateTime.of(bookingDate, startTime);
+        endAt = LocalDateTime.of(bookingDate, endTime);
     }
 }
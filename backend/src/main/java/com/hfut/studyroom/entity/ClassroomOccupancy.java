@@ -10,7 +10,10 @@ import java.time.LocalTime;
  * 教室占用记录实体
  */
 @Entity
-@Table(name = "classroom_occupancy")
+@Table(name = "classroom_occupancy", indexes = {
+        @Index(name = "idx_occupancy_classroom_date_status", columnList = "classroom_id, occupancy_date, status"),
+        @Index(name = "idx_occupancy_date_status", columnList = "occupancy_date, status")
+})
 @Data
 public class ClassroomOccupancy {
     
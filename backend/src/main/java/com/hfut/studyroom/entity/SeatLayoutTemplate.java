@@ -0,0 +1,72 @@
+package com.hfut.studyroom.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 座位布局模板实体类
+ */
+@Data
+@Entity
+@Table(name = "seat_layout_template")
+public class SeatLayoutTemplate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * 模板名称（如：标准10行10列）
+     */
+    @Column(nullable = false, unique = true, length = 50)
+    private String name;
+    
+    /**
+     * 行数（含过道行）
+     */
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+    
+    /**
+     * 列数（含过道列）
+     */
+    @Column(name = "col_count", nullable = false)
+    private Integer colCount;
+    
+    /**
+     * 过道所在行号，逗号分隔（如：6）
+     */
+    @Column(name = "aisle_rows", length = 200)
+    private String aisleRows;
+    
+    /**
+     * 过道所在列号，逗号分隔（如：4,9）
+     */
+    @Column(name = "aisle_cols", length = 200)
+    private String aisleCols;
+    
+    /**
+     * 不设座位的位置，格式为「行-列」，逗号分隔（如：1-1,1-12）
+     */
+    @Column(name = "disabled_cells", length = 1000)
+    private String disabledCells;
+    
+    /**
+     * 座位号格式
+     * 可用占位符：{row}、{col}（不计过道的行号、列号），{row2}、{col2}（补零到两位），{rowLetter}（A-Z）
+     */
+    @Column(name = "naming_pattern", nullable = false, length = 50)
+    private String namingPattern = "{rowLetter}{col2}";
+    
+    /**
+     * 创建时间
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -7,6 +7,11 @@ public class BusinessException extends RuntimeException {
     
     private Integer code;
     
+    /**
+     * 拒绝原因（用于监控指标，未指定时为OTHER）
+     */
+    private RejectReason reason = RejectReason.OTHER;
+    
     public BusinessException(String message) {
         super(message);
         this.code = 400;
@@ -17,7 +22,16 @@ public class BusinessException extends RuntimeException {
         this.code = code;
     }
     
+    public BusinessException(RejectReason reason, String message) {
+        this(message);
+        this.reason = reason;
+    }
+    
     public Integer getCode() {
         return code;
     }
+    
+    public RejectReason getReason() {
+        return reason;
+    }
 }
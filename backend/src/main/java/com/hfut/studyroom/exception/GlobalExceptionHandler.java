@@ -2,8 +2,10 @@ package com.hfut.studyroom.exception;
 
 import com.hfut.studyroom.dto.ApiResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -20,8 +22,14 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<ApiResponse<Void>> handleBusinessException(BusinessException e) {
         ApiResponse<Void> response = ApiResponse.error(e.getCode(), e.getMessage());
-        // 返回 HTTP 400 状态码，让前端拦截器捕获
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        // 限流（429）返回 HTTP 429，其他业务异常返回 HTTP 400，让前端拦截器捕获
+        // 显式指定JSON，座位状态推送（text/event-stream）等接口的业务异常也能正常返回
+        HttpStatus status = e.getCode() != null && e.getCode() == HttpStatus.TOO_MANY_REQUESTS.value()
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(response);
     }
     
     /**
@@ -35,6 +43,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
     
+    /**
+     * 处理缺少请求参数（如/bookings下的接口未携带userId）
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ApiResponse<Void>> handleMissingParameter(MissingServletRequestParameterException e) {
+        ApiResponse<Void> response = ApiResponse.error(400, "缺少参数：" + e.getParameterName());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+    
     /**
      * 处理其他异常
      */
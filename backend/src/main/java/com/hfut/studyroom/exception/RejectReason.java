@@ -0,0 +1,45 @@
+package com.hfut.studyroom.exception;
+
+/**
+ * 业务拒绝原因（固定取值，用作监控指标标签；提示信息可能包含配置值，不能直接作为标签）
+ */
+public enum RejectReason {
+    
+    /** 用户不存在 */
+    USER_NOT_FOUND,
+    /** 用户在黑名单中 */
+    BLACKLISTED,
+    /** 座位不存在 */
+    SEAT_NOT_FOUND,
+    /** 座位在该时间段已被预约 */
+    SEAT_CONFLICT,
+    /** 用户在该时间段已有其他预约 */
+    USER_TIME_CONFLICT,
+    /** 每日预约次数已达上限 */
+    DAILY_LIMIT,
+    /** 每周预约时长已达上限 */
+    WEEKLY_HOURS_LIMIT,
+    /** 预约不存在 */
+    BOOKING_NOT_FOUND,
+    /** 不是本人的预约 */
+    NOT_OWNER,
+    /** 预约状态不允许此操作 */
+    INVALID_STATUS,
+    /** 签到时间未到 */
+    CHECK_IN_TOO_EARLY,
+    /** 签到已超时 */
+    CHECK_IN_EXPIRED,
+    /** 等待预约锁超时 */
+    BUSY,
+    /** 等待预约锁时被中断 */
+    INTERRUPTED,
+    /** 未分类 */
+    OTHER;
+    
+    /**
+     * 指标标签值（小写）
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
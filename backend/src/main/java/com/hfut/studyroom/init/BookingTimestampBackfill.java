@@ -0,0 +1,51 @@
+package com.hfut.studyroom.init;
+
+import com.hfut.studyroom.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 预约开始/结束时刻数据迁移
+ * 为新增start_at/end_at字段之前创建的预约补齐数据，按ID范围分批更新，每批一个短事务
+ */
+@Slf4j
+@Component
+public class BookingTimestampBackfill implements CommandLineRunner {
+    
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.booking.backfill-chunk-size:10000}")
+    private long chunkSize;
+    
+    public BookingTimestampBackfill(BookingRepository bookingRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    @Override
+    public void run(String... args) {
+        List<Object[]> range = bookingRepository.findMissingTimestampIdRange();
+        if (range.isEmpty() || range.get(0)[0] == null) {
+            return;
+        }
+        long minId = ((Number) range.get(0)[0]).longValue();
+        long maxId = ((Number) range.get(0)[1]).longValue();
+        
+        long updated = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += chunkSize) {
+            long toId = Math.min(fromId + chunkSize - 1, maxId);
+            long from = fromId;
+            Integer count = transactionTemplate.execute(status -> bookingRepository.backfillTimestamps(from, toId));
+            updated += count != null ? count : 0;
+        }
+        log.info("补齐预约开始/结束时刻：{}条", updated);
+    }
+}
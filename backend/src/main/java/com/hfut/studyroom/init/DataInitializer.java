@@ -3,13 +3,14 @@ package com.hfut.studyroom.init;
 import com.hfut.studyroom.entity.Building;
 import com.hfut.studyroom.entity.Classroom;
 import com.hfut.studyroom.entity.ClassroomOccupancy;
-import com.hfut.studyroom.entity.Seat;
 import com.hfut.studyroom.entity.User;
 import com.hfut.studyroom.repository.BuildingRepository;
 import com.hfut.studyroom.repository.ClassroomOccupancyRepository;
 import com.hfut.studyroom.repository.ClassroomRepository;
 import com.hfut.studyroom.repository.SeatRepository;
 import com.hfut.studyroom.repository.UserRepository;
+import com.hfut.studyroom.service.SeatLayout;
+import com.hfut.studyroom.service.SeatProvisioner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -19,6 +20,8 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 数据初始化类
@@ -34,6 +37,7 @@ public class DataInitializer implements CommandLineRunner {
     private final UserRepository userRepository;
     private final ClassroomOccupancyRepository occupancyRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SeatProvisioner seatProvisioner;
     
     @Override
     public void run(String... args) {
@@ -118,21 +122,11 @@ public class DataInitializer implements CommandLineRunner {
             return;
         }
         
-        int totalSeats = 0;
-        for (Classroom classroom : classroomRepository.findAll()) {
-            // 每个教室10行10列，共100个座位
-            for (int row = 1; row <= 10; row++) {
-                for (int col = 1; col <= 10; col++) {
-                    Seat seat = new Seat();
-                    seat.setClassroom(classroom);
-                    seat.setSeatNumber(String.format("%d-%d", row, col));
-                    seat.setRowNum(row);
-                    seat.setColNum(col);
-                    seatRepository.save(seat);
-                    totalSeats++;
-                }
-            }
-        }
+        // 每个教室使用默认布局（10行10列，共100个座位）；按教学楼并行批量写入
+        Map<Long, List<Long>> classroomIdsByBuilding = classroomRepository.findAll().stream()
+                .collect(Collectors.groupingBy(classroom -> classroom.getBuilding().getId(),
+                        Collectors.mapping(Classroom::getId, Collectors.toList())));
+        int totalSeats = seatProvisioner.insertByBuilding(classroomIdsByBuilding, SeatLayout.DEFAULT.cells());
         
         log.info("初始化座位：300个教室 × 100个座位 = {}个座位", totalSeats);
     }
@@ -2,7 +2,11 @@ package com.hfut.studyroom.repository;
 
 import com.hfut.studyroom.entity.Blacklist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 黑名单数据访问层
@@ -11,10 +15,24 @@ import org.springframework.stereotype.Repository;
 public interface BlacklistRepository extends JpaRepository<Blacklist, Long> {
     
     /**
-     * 检查用户是否在黑名单中
+     * 检查用户是否在黑名单中（含已到期的记录）
      */
     boolean existsByUserId(Long userId);
     
+    /**
+     * 检查用户是否处于有效的拉黑期内
+     */
+    @Query("SELECT COUNT(b) > 0 FROM Blacklist b " +
+           "WHERE b.user.id = :userId AND (b.expiresAt IS NULL OR b.expiresAt > :now)")
+    boolean existsActiveByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+    
+    /**
+     * 全部有效的黑名单用户及到期时间（加载内存黑名单用）
+     */
+    @Query("SELECT b.user.id AS userId, b.expiresAt AS expiresAt FROM Blacklist b " +
+           "WHERE b.expiresAt IS NULL OR b.expiresAt > :now")
+    List<BlacklistEntry> findActiveEntries(@Param("now") LocalDateTime now);
+    
     /**
      * 根据用户ID查找黑名单记录
      */
@@ -24,4 +42,38 @@ public interface BlacklistRepository extends JpaRepository<Blacklist, Long> {
      * 删除用户的黑名单记录
      */
     void deleteByUserId(Long userId);
+    
+    /**
+     * 查找所有黑名单记录（一条SQL取出用户和操作人信息）
+     */
+    @Query("SELECT b.id AS id, u.id AS userId, u.username AS username, u.realName AS realName, " +
+           "b.reason AS reason, cb.username AS createdByUsername, b.expiresAt AS expiresAt, " +
+           "b.createdAt AS createdAt " +
+           "FROM Blacklist b " +
+           "JOIN b.user u " +
+           "LEFT JOIN b.createdBy cb " +
+           "ORDER BY b.id")
+    List<BlacklistView> findAllViews();
+    
+    /**
+     * 黑名单展示信息（转换BlacklistDTO用）
+     */
+    interface BlacklistView {
+        Long getId();
+        Long getUserId();
+        String getUsername();
+        String getRealName();
+        String getReason();
+        String getCreatedByUsername();
+        LocalDateTime getExpiresAt();
+        LocalDateTime getCreatedAt();
+    }
+    
+    /**
+     * 黑名单用户及到期时间
+     */
+    interface BlacklistEntry {
+        Long getUserId();
+        LocalDateTime getExpiresAt();
+    }
 }
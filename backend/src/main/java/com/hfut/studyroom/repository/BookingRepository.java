@@ -1,26 +1,75 @@
 package com.hfut.studyroom.repository;
 
 import com.hfut.studyroom.entity.Booking;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 预约数据访问层
  */
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
+    
+    /**
+     * 导出时每次从数据库读取的行数
+     */
+    String EXPORT_FETCH_SIZE = "500";
+    
+    String BOOKING_VIEW_SELECT =
+            "SELECT b.id AS id, u.id AS userId, u.username AS username, " +
+            "s.id AS seatId, s.seatNumber AS seatNumber, " +
+            "c.roomNumber AS roomNumber, bd.name AS buildingName, " +
+            "b.bookingDate AS bookingDate, b.startTime AS startTime, b.endTime AS endTime, " +
+            "b.status AS status, b.createdAt AS createdAt " +
+            "FROM Booking b " +
+            "JOIN b.user u " +
+            "JOIN b.seat s " +
+            "JOIN s.classroom c " +
+            "JOIN c.building bd ";
     
     /**
      * 查找用户的所有预约
      */
     List<Booking> findByUserIdOrderByCreatedAtDesc(Long userId);
     
+    /**
+     * 查找用户的所有预约（一条SQL取出展示所需的用户、座位、教室、教学楼字段）
+     */
+    @Query(BOOKING_VIEW_SELECT +
+           "WHERE u.id = :userId " +
+           "ORDER BY b.createdAt DESC")
+    List<BookingView> findViewsByUserId(@Param("userId") Long userId);
+    
+    /**
+     * 逐行读取全部预约（导出用，需在事务内消费并关闭）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_VIEW_SELECT + "ORDER BY b.id")
+    Stream<BookingView> streamAllViews();
+    
+    /**
+     * 按ID批量查找预约展示信息（按创建时间倒序）
+     */
+    @Query(BOOKING_VIEW_SELECT +
+           "WHERE b.id IN :ids " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+    
     /**
      * 查找用户指定状态的预约
      */
@@ -36,18 +85,47 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     List<Booking> findByStatus(String status);
     
+    /**
+     * 查找所有PENDING预约的超时登记信息（超时引擎启动时使用）
+     */
+    @Query("SELECT b.id AS id, b.seat.id AS seatId, b.bookingDate AS bookingDate, b.startTime AS startTime " +
+           "FROM Booking b WHERE b.status = 'PENDING'")
+    List<PendingBooking> findPendingBookings();
+    
+    /**
+     * 查找指定日期及以后的指定状态预约
+     */
+    List<Booking> findByStatusInAndBookingDateGreaterThanEqual(List<String> statuses, LocalDate date);
+    
+    /**
+     * 将待签到预约标记为超时（仅当仍为PENDING状态时生效）
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'TIMEOUT' " +
+           "WHERE b.id = :id AND b.status = 'PENDING'")
+    int markTimeout(@Param("id") Long id);
+    
     /**
      * 查找超时未签到的预约（PENDING状态且创建时间超过指定时间）
      */
     List<Booking> findByStatusAndCreatedAtBefore(String status, LocalDateTime time);
     
     /**
-     * 查找已到期的活动预约（ACTIVE状态且结束时间已过）
+     * 查找未填充开始/结束时刻的预约ID范围
      */
-    @Query("SELECT b FROM Booking b " +
-           "WHERE b.status = 'ACTIVE' " +
-           "AND FUNCTION('CONCAT', b.bookingDate, ' ', b.endTime) < :now")
-    List<Booking> findExpiredActiveBookings(@Param("now") LocalDateTime now);
+    @Query("SELECT MIN(b.id), MAX(b.id) FROM Booking b WHERE b.startAt IS NULL")
+    List<Object[]> findMissingTimestampIdRange();
+    
+    /**
+     * 按ID范围填充开始/结束时刻（旧数据迁移）
+     */
+    @Modifying
+    @Query(value = "UPDATE booking " +
+                   "SET start_at = CAST(booking_date AS TIMESTAMP) + start_time, " +
+                   "end_at = CAST(booking_date AS TIMESTAMP) + end_time " +
+                   "WHERE start_at IS NULL AND id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int backfillTimestamps(@Param("fromId") Long fromId, @Param("toId") Long toId);
     
     /**
      * 检查座位在指定时间段是否已被预约
@@ -65,18 +143,121 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     );
     
     /**
-     * 检查用户在指定时间段是否已有预约
+     * 查找有预约记录的座位ID
      */
-    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
-           "WHERE b.user.id = :userId " +
-           "AND b.bookingDate = :date " +
-           "AND b.status IN ('PENDING', 'ACTIVE') " +
-           "AND NOT (b.endTime <= :startTime OR b.startTime >= :endTime)")
-    boolean existsUserBookingInTime(
-        @Param("userId") Long userId,
+    @Query("SELECT DISTINCT b.seat.id FROM Booking b WHERE b.seat.id IN :seatIds")
+    List<Long> findSeatIdsWithBookings(@Param("seatIds") Collection<Long> seatIds);
+    
+    // ==================== 批量状态变更（按ID分块） ====================
+    
+    /**
+     * 锁定下一块超时未签到的预约
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id AS id, b.seat.id AS seatId, b.bookingDate AS bookingDate FROM Booking b " +
+           "WHERE b.status = 'PENDING' AND b.startAt < :threshold AND b.id > :afterId " +
+           "ORDER BY b.id")
+    List<BookingKey> lockTimeoutPendingChunk(
+        @Param("threshold") LocalDateTime threshold,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * 将ID范围内超时未签到的预约批量设为TIMEOUT
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'TIMEOUT' " +
+           "WHERE b.status = 'PENDING' AND b.startAt < :threshold " +
+           "AND b.id BETWEEN :fromId AND :toId")
+    int timeoutPendingChunk(
+        @Param("threshold") LocalDateTime threshold,
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId
+    );
+    
+    /**
+     * 锁定下一块已到期的活动预约
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id AS id, b.seat.id AS seatId, b.bookingDate AS bookingDate FROM Booking b " +
+           "WHERE b.status = 'ACTIVE' AND b.endAt < :now AND b.id > :afterId " +
+           "ORDER BY b.id")
+    List<BookingKey> lockExpiredActiveChunk(
+        @Param("now") LocalDateTime now,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * 将ID范围内已到期的活动预约批量设为COMPLETED（签退时间取预约结束时间）
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'COMPLETED', b.checkOutTime = b.endAt " +
+           "WHERE b.status = 'ACTIVE' AND b.endAt < :now " +
+           "AND b.id BETWEEN :fromId AND :toId")
+    int completeExpiredChunk(
+        @Param("now") LocalDateTime now,
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId
+    );
+    
+    /**
+     * 锁定下一块指定教室指定日期的待签到预约
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b.id AS id, b.seat.id AS seatId, b.bookingDate AS bookingDate FROM Booking b " +
+           "WHERE b.status = 'PENDING' AND b.bookingDate = :date " +
+           "AND b.seat.id IN (SELECT s.id FROM Seat s WHERE s.classroom.id = :classroomId) " +
+           "AND b.id > :afterId " +
+           "ORDER BY b.id")
+    List<BookingKey> lockClassroomPendingChunk(
+        @Param("classroomId") Long classroomId,
         @Param("date") LocalDate date,
-        @Param("startTime") LocalTime startTime,
-        @Param("endTime") LocalTime endTime
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * 将ID范围内指定教室指定日期的待签到预约批量设为CANCELLED
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CANCELLED' " +
+           "WHERE b.status = 'PENDING' AND b.bookingDate = :date " +
+           "AND b.seat.id IN (SELECT s.id FROM Seat s WHERE s.classroom.id = :classroomId) " +
+           "AND b.id BETWEEN :fromId AND :toId")
+    int cancelClassroomPendingChunk(
+        @Param("classroomId") Long classroomId,
+        @Param("date") LocalDate date,
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId
+    );
+    
+    /**
+     * 查找下一块指定日期之前已结束的预约
+     */
+    @Query("SELECT b.id AS id, b.seat.id AS seatId, b.bookingDate AS bookingDate FROM Booking b " +
+           "WHERE b.status IN ('COMPLETED', 'CANCELLED', 'TIMEOUT', 'VIOLATED') " +
+           "AND b.bookingDate < :before AND b.id > :afterId " +
+           "ORDER BY b.id")
+    List<BookingKey> findFinishedChunk(
+        @Param("before") LocalDate before,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * 删除ID范围内指定日期之前已结束的预约
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b " +
+           "WHERE b.status IN ('COMPLETED', 'CANCELLED', 'TIMEOUT', 'VIOLATED') " +
+           "AND b.bookingDate < :before " +
+           "AND b.id BETWEEN :fromId AND :toId")
+    int deleteFinishedChunk(
+        @Param("before") LocalDate before,
+        @Param("fromId") Long fromId,
+        @Param("toId") Long toId
     );
     
     /**
@@ -95,7 +276,45 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     long countByUserIdAndStatusIn(Long userId, List<String> statuses);
     
     /**
-     * 统计用户在指定日期的指定状态预约数量
+     * 查找用户在日期范围内的指定状态预约（用户预约台账加载完成前使用）
+     */
+    List<Booking> findByUserIdAndStatusInAndBookingDateBetween(
+        Long userId, List<String> statuses, LocalDate from, LocalDate to);
+    
+    /**
+     * 预约展示信息（转换BookingDTO用）
+     */
+    interface BookingView {
+        Long getId();
+        Long getUserId();
+        String getUsername();
+        Long getSeatId();
+        String getSeatNumber();
+        String getRoomNumber();
+        String getBuildingName();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        String getStatus();
+        LocalDateTime getCreatedAt();
+    }
+    
+    /**
+     * 预约定位信息（批量操作时用于同步内存索引）
+     */
+    interface BookingKey {
+        Long getId();
+        Long getSeatId();
+        LocalDate getBookingDate();
+    }
+    
+    /**
+     * 待签到预约的超时登记信息
      */
-    long countByUserIdAndBookingDateAndStatusIn(Long userId, LocalDate bookingDate, List<String> statuses);
+    interface PendingBooking {
+        Long getId();
+        Long getSeatId();
+        LocalDate getBookingDate();
+        LocalTime getStartTime();
+    }
 }
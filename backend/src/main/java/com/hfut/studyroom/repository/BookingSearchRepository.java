@@ -0,0 +1,19 @@
+package com.hfut.studyroom.repository;
+
+import com.hfut.studyroom.dto.BookingSearchRequest;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 预约条件查询（按条件动态拼接SQL，只使用实际传入的条件）
+ */
+public interface BookingSearchRepository {
+    
+    /**
+     * 按(created_at, id)倒序查找符合条件的预约ID
+     * @param afterCreatedAt 上一页最后一条的创建时间（为空时从头开始）
+     * @param afterId 上一页最后一条的ID
+     * @param limit 最多返回条数
+     */
+    List<Long> searchIds(BookingSearchRequest request, LocalDateTime afterCreatedAt, Long afterId, int limit);
+}
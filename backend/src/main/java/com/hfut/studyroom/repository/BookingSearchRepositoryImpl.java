@@ -0,0 +1,73 @@
+package com.hfut.studyroom.repository;
+
+import com.hfut.studyroom.dto.BookingSearchRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预约条件查询实现
+ * 游标条件写成「created_at <= :t AND (created_at < :t OR id < :id)」，
+ * 使数据库可以直接在(created_at, id)系列索引上定位起点，查询耗时与表大小无关
+ */
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Long> searchIds(BookingSearchRequest request, LocalDateTime afterCreatedAt, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT b.id FROM Booking b WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+        
+        if (request.getStatus() != null) {
+            jpql.append(" AND b.status = :status");
+            params.put("status", request.getStatus());
+        }
+        if (request.getUserId() != null) {
+            jpql.append(" AND b.user.id = :userId");
+            params.put("userId", request.getUserId());
+        }
+        if (request.getStartDate() != null) {
+            jpql.append(" AND b.bookingDate >= :startDate");
+            params.put("startDate", request.getStartDate());
+        }
+        if (request.getEndDate() != null) {
+            jpql.append(" AND b.bookingDate <= :endDate");
+            params.put("endDate", request.getEndDate());
+        }
+        
+        // 教室、教学楼条件通过座位子查询过滤
+        List<String> seatConditions = new ArrayList<>();
+        if (request.getClassroomId() != null) {
+            seatConditions.add("s.classroom.id = :classroomId");
+            params.put("classroomId", request.getClassroomId());
+        }
+        if (request.getBuildingId() != null) {
+            seatConditions.add("s.classroom.building.id = :buildingId");
+            params.put("buildingId", request.getBuildingId());
+        }
+        if (!seatConditions.isEmpty()) {
+            jpql.append(" AND b.seat.id IN (SELECT s.id FROM Seat s WHERE ")
+                    .append(String.join(" AND ", seatConditions))
+                    .append(")");
+        }
+        
+        if (afterCreatedAt != null) {
+            jpql.append(" AND b.createdAt <= :afterCreatedAt")
+                    .append(" AND (b.createdAt < :afterCreatedAt OR b.id < :afterId)");
+            params.put("afterCreatedAt", afterCreatedAt);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY b.createdAt DESC, b.id DESC");
+        
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
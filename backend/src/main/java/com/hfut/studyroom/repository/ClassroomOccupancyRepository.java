@@ -1,14 +1,20 @@
 package com.hfut.studyroom.repository;
 
 import com.hfut.studyroom.entity.ClassroomOccupancy;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * 教室占用记录数据访问层
@@ -49,6 +55,21 @@ public interface ClassroomOccupancyRepository extends JpaRepository<ClassroomOcc
         @Param("endTime") LocalTime endTime
     );
     
+    /**
+     * 教学楼内在指定时间段被占用的教室ID
+     */
+    @Query("SELECT DISTINCT co.classroom.id FROM ClassroomOccupancy co " +
+           "WHERE co.classroom.building.id = :buildingId " +
+           "AND co.occupancyDate = :date " +
+           "AND co.status IN ('SCHEDULED', 'ONGOING') " +
+           "AND NOT (co.endTime <= :startTime OR co.startTime >= :endTime)")
+    Set<Long> findOccupiedClassroomIds(
+        @Param("buildingId") Long buildingId,
+        @Param("date") LocalDate date,
+        @Param("startTime") LocalTime startTime,
+        @Param("endTime") LocalTime endTime
+    );
+    
     /**
      * 查找指定日期范围内的所有占用记录
      */
@@ -69,4 +90,37 @@ public interface ClassroomOccupancyRepository extends JpaRepository<ClassroomOcc
            "AND co.status IN ('SCHEDULED', 'ONGOING') " +
            "ORDER BY co.classroom.building.name, co.classroom.roomNumber, co.startTime")
     List<ClassroomOccupancy> findTodayOccupancies(@Param("today") LocalDate today);
+    
+    /**
+     * 逐行读取全部占用记录（导出用，需在事务内消费并关闭）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BookingRepository.EXPORT_FETCH_SIZE))
+    @Query("SELECT co.id AS id, c.id AS classroomId, c.roomNumber AS roomNumber, bd.name AS buildingName, " +
+           "co.occupancyDate AS occupancyDate, co.startTime AS startTime, co.endTime AS endTime, " +
+           "co.reason AS reason, co.type AS type, co.occupiedBy AS occupiedBy, co.status AS status, " +
+           "co.remarks AS remarks, co.createdAt AS createdAt " +
+           "FROM ClassroomOccupancy co " +
+           "JOIN co.classroom c " +
+           "JOIN c.building bd " +
+           "ORDER BY co.id")
+    Stream<OccupancyView> streamAllViews();
+    
+    /**
+     * 占用记录展示信息（转换ClassroomOccupancyDTO用）
+     */
+    interface OccupancyView {
+        Long getId();
+        Long getClassroomId();
+        String getRoomNumber();
+        String getBuildingName();
+        LocalDate getOccupancyDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        String getReason();
+        String getType();
+        String getOccupiedBy();
+        String getStatus();
+        String getRemarks();
+        LocalDateTime getCreatedAt();
+    }
 }
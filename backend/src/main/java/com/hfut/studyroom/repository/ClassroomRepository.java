@@ -2,8 +2,13 @@ package com.hfut.studyroom.repository;
 
 import com.hfut.studyroom.entity.Classroom;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 教室数据访问层
@@ -16,11 +21,54 @@ public interface ClassroomRepository extends JpaRepository<Classroom, Long> {
      */
     List<Classroom> findByBuildingId(Long buildingId);
     
+    /**
+     * 根据教学楼ID查找教室列表（同时加载教学楼）
+     */
+    @Query("SELECT c FROM Classroom c JOIN FETCH c.building b WHERE b.id = :buildingId ORDER BY c.id")
+    List<Classroom> findWithBuildingByBuildingId(@Param("buildingId") Long buildingId);
+    
+    /**
+     * 根据ID查找教室（同时加载教学楼）
+     */
+    @Query("SELECT c FROM Classroom c JOIN FETCH c.building WHERE c.id = :id")
+    Optional<Classroom> findWithBuildingById(@Param("id") Long id);
+    
+    /**
+     * 查找教学楼内的教室ID
+     */
+    @Query("SELECT c.id FROM Classroom c WHERE c.building.id = :buildingId ORDER BY c.id")
+    List<Long> findIdsByBuildingId(@Param("buildingId") Long buildingId);
+    
+    /**
+     * 查找全部教室ID
+     */
+    @Query("SELECT c.id FROM Classroom c ORDER BY c.id")
+    List<Long> findAllIds();
+    
+    /**
+     * 批量修改教室容量
+     */
+    @Modifying
+    @Query("UPDATE Classroom c SET c.capacity = :capacity WHERE c.id IN :ids")
+    int updateCapacity(@Param("ids") Collection<Long> ids, @Param("capacity") int capacity);
+    
+    /**
+     * 查找教学楼内尚未初始化座位的教室ID
+     */
+    @Query("SELECT c.id FROM Classroom c WHERE c.building.id = :buildingId " +
+           "AND NOT EXISTS (SELECT 1 FROM Seat s WHERE s.classroom = c) ORDER BY c.id")
+    List<Long> findIdsWithoutSeatsByBuildingId(@Param("buildingId") Long buildingId);
+    
     /**
      * 根据教学楼ID和教室号查找
      */
     Classroom findByBuildingIdAndRoomNumber(Long buildingId, String roomNumber);
     
+    /**
+     * 统计ID在指定集合中的教室数量
+     */
+    long countByIdIn(Collection<Long> ids);
+    
     /**
      * 统计教室数量
      */
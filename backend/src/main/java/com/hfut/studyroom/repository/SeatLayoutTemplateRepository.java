@@ -0,0 +1,17 @@
+package com.hfut.studyroom.repository;
+
+import com.hfut.studyroom.entity.SeatLayoutTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 座位布局模板数据访问层
+ */
+@Repository
+public interface SeatLayoutTemplateRepository extends JpaRepository<SeatLayoutTemplate, Long> {
+    
+    /**
+     * 根据名称查找模板
+     */
+    SeatLayoutTemplate findByName(String name);
+}
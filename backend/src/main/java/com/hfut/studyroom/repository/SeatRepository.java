@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -26,11 +27,31 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
     long countByClassroomId(Long classroomId);
     
     /**
-     * 查询可用座位（未在指定时间段被预约的座位）
+     * 查找多个教室的所有座位（同时加载教室和教学楼）
      */
     @Query("SELECT s FROM Seat s " +
-           "WHERE s.classroom.building.id = :buildingId " +
-           "AND s.classroom.status = 'OPEN' " +
+           "JOIN FETCH s.classroom c " +
+           "JOIN FETCH c.building " +
+           "WHERE c.id IN :classroomIds " +
+           "ORDER BY s.id")
+    List<Seat> findWithLocationByClassroomIdIn(@Param("classroomIds") Collection<Long> classroomIds);
+    
+    /**
+     * 查找多个教室的座位位置（重新排列座位时比对新旧布局）
+     */
+    @Query("SELECT s.id AS id, s.classroom.id AS classroomId, s.seatNumber AS seatNumber, " +
+           "s.rowNum AS rowNum, s.colNum AS colNum " +
+           "FROM Seat s WHERE s.classroom.id IN :classroomIds ORDER BY s.id")
+    List<SeatPosition> findPositionsByClassroomIdIn(@Param("classroomIds") Collection<Long> classroomIds);
+    
+    /**
+     * 查询可用座位（未在指定时间段被预约的座位，同时加载教室和教学楼）
+     */
+    @Query("SELECT s FROM Seat s " +
+           "JOIN FETCH s.classroom c " +
+           "JOIN FETCH c.building bd " +
+           "WHERE bd.id = :buildingId " +
+           "AND c.status = 'OPEN' " +
            "AND NOT EXISTS (" +
            "  SELECT 1 FROM Booking b " +
            "  WHERE b.seat.id = s.id " +
@@ -46,10 +67,12 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
     );
     
     /**
-     * 查询指定教室的可用座位
+     * 查询指定教室的可用座位（同时加载教室和教学楼）
      */
     @Query("SELECT s FROM Seat s " +
-           "WHERE s.classroom.id = :classroomId " +
+           "JOIN FETCH s.classroom c " +
+           "JOIN FETCH c.building " +
+           "WHERE c.id = :classroomId " +
            "AND NOT EXISTS (" +
            "  SELECT 1 FROM Booking b " +
            "  WHERE b.seat.id = s.id " +
@@ -63,4 +86,15 @@ public interface SeatRepository extends JpaRepository<Seat, Long> {
         @Param("startTime") LocalTime startTime,
         @Param("endTime") LocalTime endTime
     );
+    
+    /**
+     * 座位位置信息
+     */
+    interface SeatPosition {
+        Long getId();
+        Long getClassroomId();
+        String getSeatNumber();
+        Integer getRowNum();
+        Integer getColNum();
+    }
 }
@@ -1,15 +1,22 @@
 package com.hfut.studyroom.scheduler;
 
-import com.hfut.studyroom.entity.Booking;
-import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.service.BookingBatchService;
+import com.hfut.studyroom.service.SeatAvailabilityIndex;
+import com.hfut.studyroom.service.SeatMapVersions;
+import com.hfut.studyroom.service.UserBookingLedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.function.IntSupplier;
 
 /**
  * 预约定时任务
@@ -19,40 +26,29 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingScheduler {
     
-    private final BookingRepository bookingRepository;
+    private static final String RELEASE_TIMEOUT_CRON = "0 */10 * * * ?";
+    private static final String COMPLETE_EXPIRED_CRON = "0 0 * * * ?";
+    
+    private final BookingBatchService bookingBatchService;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final UserBookingLedger userBookingLedger;
+    private final SeatMapVersions seatMapVersions;
+    private final MeterRegistry meterRegistry;
     
     @Value("${app.booking.timeout-minutes:15}")
     private int timeoutMinutes;
     
     /**
-     * 超时释放座位
-     * 每分钟执行一次，将开始时间后15分钟仍未签到的PENDING预约改为TIMEOUT
+     * 超时释放座位（兜底）
+     * 超时由BookingExpiryEngine在到期时逐条处理，这里每10分钟兜底检查一次，
+     * 按(status, start_at)索引范围批量更新
      */
-    @Scheduled(cron = "0 * * * * ?")
-    @Transactional
+    @Scheduled(cron = RELEASE_TIMEOUT_CRON)
     public void releaseTimeoutBookings() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // 查找所有 PENDING 状态的预约
-        List<Booking> pendingBookings = bookingRepository.findByStatus("PENDING");
-        
-        List<Booking> timeoutBookings = pendingBookings.stream()
-                .filter(booking -> {
-                    // 计算预约开始时间
-                    LocalDateTime startDateTime = LocalDateTime.of(
-                            booking.getBookingDate(), 
-                            booking.getStartTime()
-                    );
-                    // 如果当前时间超过开始时间 + 15分钟，则超时
-                    LocalDateTime timeoutThreshold = startDateTime.plusMinutes(timeoutMinutes);
-                    return now.isAfter(timeoutThreshold);
-                })
-                .toList();
-        
-        if (!timeoutBookings.isEmpty()) {
-            timeoutBookings.forEach(booking -> booking.setStatus("TIMEOUT"));
-            bookingRepository.saveAll(timeoutBookings);
-            log.info("释放{}个超时未签到的预约", timeoutBookings.size());
+        int affected = runJob("release_timeout", RELEASE_TIMEOUT_CRON,
+                () -> bookingBatchService.timeoutPending(LocalDateTime.now().minusMinutes(timeoutMinutes)));
+        if (affected > 0) {
+            log.info("兜底释放{}个超时未签到的预约", affected);
         }
     }
     
@@ -60,23 +56,69 @@ public class BookingScheduler {
      * 自动完成已到期的预约
      * 每小时执行一次，将已过结束时间的ACTIVE预约改为COMPLETED
      */
-    @Scheduled(cron = "0 0 * * * ?")
-    @Transactional
+    @Scheduled(cron = COMPLETE_EXPIRED_CRON)
     public void completeExpiredBookings() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        List<Booking> expiredBookings = bookingRepository.findExpiredActiveBookings(now);
+        int affected = runJob("complete_expired", COMPLETE_EXPIRED_CRON,
+                () -> bookingBatchService.completeExpired(LocalDateTime.now()));
+        if (affected > 0) {
+            log.info("自动完成{}个已到期的预约", affected);
+        }
+    }
+    
+    /**
+     * 清理过期的座位占用索引、用户预约台账和座位图版本
+     * 每天凌晨执行一次，座位索引移除今天之前的数据，用户台账保留本周数据（用于每周时长统计）
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void evictAvailabilityIndex() {
+        LocalDate today = LocalDate.now();
+        seatAvailabilityIndex.evictBefore(today);
+        userBookingLedger.evictBefore(today.with(DayOfWeek.MONDAY));
+        seatMapVersions.evictBefore(today);
+    }
+    
+    /**
+     * 执行任务并记录指标
+     * booking.scheduler.lag：实际开始时间落后计划触发时间的时长
+     * booking.scheduler.duration：执行耗时（按结果分组）
+     * booking.scheduler.rows：影响的预约行数
+     */
+    private int runJob(String job, String cron, IntSupplier action) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timer.builder("booking.scheduler.lag")
+                .description("定时任务开始时间落后计划时间的时长")
+                .tag("job", job)
+                .register(meterRegistry)
+                .record(Duration.between(lastFireTime(cron, startedAt), startedAt));
         
-        if (!expiredBookings.isEmpty()) {
-            expiredBookings.forEach(booking -> {
-                booking.setStatus("COMPLETED");
-                booking.setCheckOutTime(LocalDateTime.of(
-                        booking.getBookingDate(),
-                        booking.getEndTime()
-                ));
-            });
-            bookingRepository.saveAll(expiredBookings);
-            log.info("自动完成{}个已到期的预约", expiredBookings.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            int affected = action.getAsInt();
+            meterRegistry.counter("booking.scheduler.rows", "job", job).increment(affected);
+            return affected;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("booking.scheduler.duration")
+                    .description("定时任务执行耗时")
+                    .tag("job", job)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * 不晚于now的最近一次计划触发时间
+     */
+    private static LocalDateTime lastFireTime(String cron, LocalDateTime now) {
+        CronExpression expression = CronExpression.parse(cron);
+        LocalDateTime fireTime = expression.next(now.minusDays(1));
+        LocalDateTime next;
+        while ((next = expression.next(fireTime)) != null && !next.isAfter(now)) {
+            fireTime = next;
         }
+        return fireTime;
     }
 }
@@ -1,15 +1,24 @@
 package com.hfut.studyroom.service;
 
+import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.BookingPageDTO;
+import com.hfut.studyroom.dto.BookingSearchRequest;
 import com.hfut.studyroom.entity.*;
 import com.hfut.studyroom.exception.BusinessException;
 import com.hfut.studyroom.repository.*;
+import com.hfut.studyroom.repository.BlacklistRepository.BlacklistView;
+import com.hfut.studyroom.repository.BookingRepository.BookingView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 管理服务类
@@ -18,11 +27,22 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AdminService {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final ClassroomRepository classroomRepository;
     private final SeatRepository seatRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final BlacklistRepository blacklistRepository;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final UserBookingLedger userBookingLedger;
+    private final BookingExpiryEngine bookingExpiryEngine;
+    private final BookingBatchService bookingBatchService;
+    private final ReferenceDataCache referenceDataCache;
+    private final SeatLayoutService seatLayoutService;
+    private final SessionStore sessionStore;
+    private final BlacklistCache blacklistCache;
     
     /**
      * 创建教室
@@ -36,7 +56,9 @@ public class AdminService {
             throw new BusinessException("该教室已存在");
         }
         
-        return classroomRepository.save(classroom);
+        Classroom saved = classroomRepository.save(classroom);
+        referenceDataCache.evictClassroom(saved.getId());
+        return saved;
     }
     
     /**
@@ -52,7 +74,9 @@ public class AdminService {
         existing.setCapacity(classroom.getCapacity());
         existing.setStatus(classroom.getStatus());
         
-        return classroomRepository.save(existing);
+        Classroom saved = classroomRepository.save(existing);
+        referenceDataCache.evictClassroom(id);
+        return saved;
     }
     
     /**
@@ -64,39 +88,85 @@ public class AdminService {
             throw new BusinessException("教室不存在");
         }
         classroomRepository.deleteById(id);
+        referenceDataCache.evictClassroom(id);
     }
     
     /**
-     * 初始化教室座位（10行10列，共100个座位）
+     * 按布局模板初始化教室座位（不指定模板时为10行10列），返回生成的座位数
      */
     @Transactional
-    public void initClassroomSeats(Long classroomId) {
-        Classroom classroom = classroomRepository.findById(classroomId)
-                .orElseThrow(() -> new BusinessException("教室不存在"));
+    public int initClassroomSeats(Long classroomId, Long templateId) {
+        if (!classroomRepository.existsById(classroomId)) {
+            throw new BusinessException("教室不存在");
+        }
         
         // 检查是否已有座位
         if (seatRepository.countByClassroomId(classroomId) > 0) {
             throw new BusinessException("该教室已初始化座位");
         }
         
-        // 生成10行10列座位
-        for (int row = 1; row <= 10; row++) {
-            for (int col = 1; col <= 10; col++) {
-                Seat seat = new Seat();
-                seat.setClassroom(classroom);
-                seat.setSeatNumber(String.format("%c%02d", 'A' + row - 1, col));
-                seat.setRowNum(row);
-                seat.setColNum(col);
-                seatRepository.save(seat);
-            }
+        SeatLayout layout = seatLayoutService.getLayout(templateId);
+        return seatLayoutService.applyLayout(layout, List.of(classroomId)).getCreated();
+    }
+    
+    /**
+     * 按布局模板初始化教学楼内所有尚无座位的教室，返回生成的座位数
+     */
+    @Transactional
+    public int initBuildingSeats(Long buildingId, Long templateId) {
+        if (referenceDataCache.getBuilding(buildingId).isEmpty()) {
+            throw new BusinessException("教学楼不存在");
         }
+        SeatLayout layout = seatLayoutService.getLayout(templateId);
+        List<Long> classroomIds = classroomRepository.findIdsWithoutSeatsByBuildingId(buildingId);
+        return seatLayoutService.applyLayout(layout, classroomIds).getCreated();
     }
     
     /**
-     * 获取所有预约记录
+     * 按条件分页查询预约记录（按创建时间倒序，游标分页）
      */
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public BookingPageDTO searchBookings(BookingSearchRequest request) {
+        int size = request.getSize() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(request.getSize(), MAX_PAGE_SIZE));
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] parts = decodeCursor(request.getCursor());
+            afterCreatedAt = LocalDateTime.parse(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+        }
+        
+        // 多取一条用于判断是否还有下一页
+        List<Long> ids = bookingRepository.searchIds(request, afterCreatedAt, afterId, size + 1);
+        boolean hasMore = ids.size() > size;
+        List<BookingView> views = ids.isEmpty() ? List.of()
+                : bookingRepository.findViewsByIdIn(hasMore ? ids.subList(0, size) : ids);
+        
+        BookingPageDTO page = new BookingPageDTO();
+        page.setItems(views.stream().map(BookingDTO::fromView).collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            BookingView last = views.get(views.size() - 1);
+            page.setNextCursor(encodeCursor(last.getCreatedAt(), last.getId()));
+        }
+        return page;
+    }
+    
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new BusinessException("无效的分页游标");
+        }
     }
     
     /**
@@ -104,10 +174,34 @@ public class AdminService {
      */
     @Transactional
     public void deleteBooking(Long id) {
-        if (!bookingRepository.existsById(id)) {
-            throw new BusinessException("预约不存在");
+        Booking booking = bookingRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("预约不存在"));
+        bookingRepository.delete(booking);
+        seatAvailabilityIndex.release(booking);
+        userBookingLedger.refund(id);
+        bookingExpiryEngine.cancel(id);
+    }
+    
+    /**
+     * 批量取消教室某日的待签到预约（如教室临时关闭）
+     * @return 取消的预约数
+     */
+    public int cancelClassroomBookings(Long classroomId, LocalDate date) {
+        if (!classroomRepository.existsById(classroomId)) {
+            throw new BusinessException("教室不存在");
+        }
+        return bookingBatchService.cancelClassroomBookings(classroomId, date);
+    }
+    
+    /**
+     * 清理指定日期之前已结束的预约记录
+     * @return 删除的预约数
+     */
+    public int cleanupBookings(LocalDate before) {
+        if (before.isAfter(LocalDate.now())) {
+            throw new BusinessException("只能清理今天之前的预约记录");
         }
-        bookingRepository.deleteById(id);
+        return bookingBatchService.deleteFinishedBefore(before);
     }
     
     /**
@@ -126,31 +220,48 @@ public class AdminService {
                 .orElseThrow(() -> new BusinessException("用户不存在"));
         
         user.setStatus(status);
+        if ("DISABLED".equals(status)) {
+            // 禁用后立即注销该用户的全部登录会话
+            TransactionHooks.afterCommit(() -> sessionStore.removeUser(id));
+        }
         return userRepository.save(user);
     }
     
     /**
      * 添加黑名单
+     * @param days 拉黑天数，为空表示永久
      */
     @Transactional
-    public Blacklist addBlacklist(Long userId, String reason, Long adminId) {
+    public Blacklist addBlacklist(Long userId, String reason, Long adminId, Integer days) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("用户不存在"));
         
         User admin = userRepository.findById(adminId)
                 .orElseThrow(() -> new BusinessException("管理员不存在"));
         
-        // 检查是否已在黑名单
-        if (blacklistRepository.existsByUserId(userId)) {
-            throw new BusinessException("该用户已在黑名单中");
+        if (days != null && days < 1) {
+            throw new BusinessException("拉黑天数必须大于0");
+        }
+        
+        // 检查是否已在黑名单（已到期的记录直接替换）
+        Blacklist existing = blacklistRepository.findByUserId(userId);
+        if (existing != null) {
+            if (existing.getExpiresAt() == null || existing.getExpiresAt().isAfter(LocalDateTime.now())) {
+                throw new BusinessException("该用户已在黑名单中");
+            }
+            blacklistRepository.delete(existing);
+            blacklistRepository.flush();
         }
         
         Blacklist blacklist = new Blacklist();
         blacklist.setUser(user);
         blacklist.setReason(reason);
         blacklist.setCreatedBy(admin);
+        blacklist.setExpiresAt(days != null ? LocalDateTime.now().plusDays(days) : null);
         
-        return blacklistRepository.save(blacklist);
+        Blacklist saved = blacklistRepository.save(blacklist);
+        TransactionHooks.afterCommit(() -> blacklistCache.add(userId, saved.getExpiresAt()));
+        return saved;
     }
     
     /**
@@ -158,17 +269,25 @@ public class AdminService {
      */
     @Transactional
     public void removeBlacklist(Long id) {
-        if (!blacklistRepository.existsById(id)) {
-            throw new BusinessException("黑名单记录不存在");
-        }
-        blacklistRepository.deleteById(id);
+        Blacklist blacklist = blacklistRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("黑名单记录不存在"));
+        Long userId = blacklist.getUser().getId();
+        blacklistRepository.delete(blacklist);
+        TransactionHooks.afterCommit(() -> blacklistCache.remove(userId));
     }
     
     /**
      * 获取黑名单列表
      */
-    public List<Blacklist> getAllBlacklist() {
-        return blacklistRepository.findAll();
+    public List<BlacklistView> getAllBlacklist() {
+        return blacklistRepository.findAllViews();
+    }
+    
+    /**
+     * 获取基础数据缓存统计
+     */
+    public Map<String, Map<String, Object>> getReferenceCacheStats() {
+        return referenceDataCache.getStats();
     }
     
     /**
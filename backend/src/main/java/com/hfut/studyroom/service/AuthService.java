@@ -11,7 +11,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 认证服务类
@@ -22,6 +23,10 @@ public class AuthService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SessionStore sessionStore;
+    private final PasswordVerifier passwordVerifier;
+    private final LoginThrottle loginThrottle;
+    private final LastLoginRecorder lastLoginRecorder;
     
     /**
      * 用户注册
@@ -49,31 +54,63 @@ public class AuthService {
     
     /**
      * 用户登录
+     * 密码在专用线程池中异步校验，失败次数按用户名和IP限流，最后登录时间延迟批量写入
      */
-    @Transactional
-    public LoginResponse login(LoginRequest request) {
-        // 查找用户
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new BusinessException("用户名或密码错误"));
+    public CompletableFuture<LoginResponse> login(LoginRequest request, String clientIp) {
+        String username = request.getUsername();
+        loginThrottle.check(username, clientIp);
         
-        // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        // 查找用户
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            loginThrottle.recordFailure(username, clientIp);
             throw new BusinessException("用户名或密码错误");
         }
         
-        // 检查用户状态
-        if ("DISABLED".equals(user.getStatus())) {
-            throw new BusinessException("账号已被禁用");
-        }
-        
-        // 更新最后登录时间
-        user.setLastLoginTime(java.time.LocalDateTime.now());
-        userRepository.save(user);
-        
-        // 生成token (简单实现，实际项目应使用JWT)
-        String token = UUID.randomUUID().toString().replace("-", "");
-        
-        // 创建返回对象（不包含密码）
+        // 验证密码
+        return passwordVerifier.matches(request.getPassword(), user.getPassword()).thenApply(matched -> {
+            if (!matched) {
+                loginThrottle.recordFailure(username, clientIp);
+                throw new BusinessException("用户名或密码错误");
+            }
+            loginThrottle.reset(username);
+            
+            // 检查用户状态
+            if ("DISABLED".equals(user.getStatus())) {
+                throw new BusinessException("账号已被禁用");
+            }
+            
+            // 记录最后登录时间（延迟批量写入）
+            user.setLastLoginTime(LocalDateTime.now());
+            lastLoginRecorder.record(user.getId(), user.getLastLoginTime());
+            
+            // 创建登录会话
+            String token = sessionStore.create(user);
+            
+            return new LoginResponse(token, withoutPassword(user));
+        });
+    }
+    
+    /**
+     * 退出登录
+     */
+    public void logout(String token) {
+        sessionStore.remove(token);
+    }
+    
+    /**
+     * 获取当前登录用户
+     */
+    public User getCurrentUser(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new BusinessException("用户不存在"));
+        return withoutPassword(user);
+    }
+    
+    /**
+     * 创建返回对象（不包含密码）
+     */
+    private User withoutPassword(User user) {
         User userResponse = new User();
         userResponse.setId(user.getId());
         userResponse.setUsername(user.getUsername());
@@ -86,7 +123,6 @@ public class AuthService {
         userResponse.setViolationCount(user.getViolationCount());
         userResponse.setLastLoginTime(user.getLastLoginTime());
         userResponse.setCreatedAt(user.getCreatedAt());
-        
-        return new LoginResponse(token, userResponse);
+        return userResponse;
     }
 }
@@ -0,0 +1,127 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.repository.BlacklistRepository;
+import com.hfut.studyroom.repository.BlacklistRepository.BlacklistEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 内存黑名单
+ * 黑名单通常只有几十个用户，以有序long数组保存用户ID及对应的到期时间（毫秒，永久拉黑为Long.MAX_VALUE），
+ * 预约时二分查找判断，不访问数据库。修改时复制出新数组整体替换（写时复制），读取无锁；
+ * 到期的记录在判断时直接视为无效，不需要定时清理。启动完成前回退到数据库查询。
+ * 管理端修改黑名单后需在事务提交后调用add/remove。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlacklistCache {
+    
+    private static final long PERMANENT = Long.MAX_VALUE;
+    
+    private final BlacklistRepository blacklistRepository;
+    
+    private volatile Snapshot snapshot;
+    
+    /**
+     * 按用户ID升序排列的黑名单，userIds[i]的到期时间为expiresAt[i]
+     */
+    private record Snapshot(long[] userIds, long[] expiresAt) {
+    }
+    
+    /**
+     * 启动时从数据库加载有效的黑名单
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        List<BlacklistEntry> entries = blacklistRepository.findActiveEntries(LocalDateTime.now());
+        long[][] rows = entries.stream()
+                .map(entry -> new long[]{entry.getUserId(), toMillis(entry.getExpiresAt())})
+                .sorted((a, b) -> Long.compare(a[0], b[0]))
+                .toArray(long[][]::new);
+        long[] userIds = new long[rows.length];
+        long[] expiresAt = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            userIds[i] = rows[i][0];
+            expiresAt[i] = rows[i][1];
+        }
+        snapshot = new Snapshot(userIds, expiresAt);
+        log.info("黑名单加载完成：{}个用户", userIds.length);
+    }
+    
+    /**
+     * 用户是否处于有效的拉黑期内
+     */
+    public boolean isBlacklisted(long userId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return blacklistRepository.existsActiveByUserId(userId, LocalDateTime.now());
+        }
+        int index = Arrays.binarySearch(current.userIds(), userId);
+        return index >= 0 && current.expiresAt()[index] > System.currentTimeMillis();
+    }
+    
+    /**
+     * 加入黑名单，expiresAt为空表示永久；用户已存在时更新到期时间
+     */
+    public synchronized void add(long userId, LocalDateTime expiresAt) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        long[] userIds = current.userIds();
+        int index = Arrays.binarySearch(userIds, userId);
+        if (index >= 0) {
+            long[] newExpiresAt = current.expiresAt().clone();
+            newExpiresAt[index] = toMillis(expiresAt);
+            snapshot = new Snapshot(userIds, newExpiresAt);
+            return;
+        }
+        int insertAt = -index - 1;
+        snapshot = new Snapshot(
+                insert(userIds, insertAt, userId),
+                insert(current.expiresAt(), insertAt, toMillis(expiresAt)));
+    }
+    
+    /**
+     * 移出黑名单
+     */
+    public synchronized void remove(long userId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        int index = Arrays.binarySearch(current.userIds(), userId);
+        if (index < 0) {
+            return;
+        }
+        snapshot = new Snapshot(delete(current.userIds(), index), delete(current.expiresAt(), index));
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? PERMANENT : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static long[] insert(long[] array, int index, long value) {
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, index);
+        result[index] = value;
+        System.arraycopy(array, index, result, index + 1, array.length - index);
+        return result;
+    }
+    
+    private static long[] delete(long[] array, int index) {
+        long[] result = new long[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+}
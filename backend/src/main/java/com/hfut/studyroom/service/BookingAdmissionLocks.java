@@ -0,0 +1,109 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.exception.RejectReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * 预约准入分段锁
+ * 座位和用户分别哈希到固定数量的锁上，同一座位（或同一用户）的预约串行执行，
+ * 不同座位的预约互不阻塞。两把锁始终按下标从小到大获取，不会出现死锁。
+ */
+@Component
+public class BookingAdmissionLocks {
+    
+    private static final int SEAT_SALT = 0x5EA7;
+    private static final int USER_SALT = 0x05E4;
+    
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    
+    public BookingAdmissionLocks(
+            @Value("${app.booking.lock-stripes:1024}") int stripeCount,
+            @Value("${app.booking.lock-timeout-ms:3000}") long timeoutMillis
+    ) {
+        int size = Integer.highestOneBit(Math.max(stripeCount, 2) - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    /**
+     * 持有座位锁和用户锁执行操作
+     */
+    public <T> T withSeatAndUser(Long seatId, Long userId, Supplier<T> action) {
+        int seatStripe = stripeOf(seatId, SEAT_SALT);
+        int userStripe = stripeOf(userId, USER_SALT);
+        ReentrantLock first = stripes[Math.min(seatStripe, userStripe)];
+        ReentrantLock second = seatStripe == userStripe ? null : stripes[Math.max(seatStripe, userStripe)];
+        
+        acquire(first);
+        try {
+            if (second == null) {
+                return action.get();
+            }
+            acquire(second);
+            try {
+                return action.get();
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+    
+    /**
+     * 持有一批座位和用户的全部锁执行操作（排队模式批量预约用），同样按下标从小到大获取
+     */
+    public <T> T withSeatsAndUsers(Collection<Long> seatIds, Collection<Long> userIds, Supplier<T> action) {
+        int[] indexes = IntStream.concat(
+                        seatIds.stream().mapToInt(seatId -> stripeOf(seatId, SEAT_SALT)),
+                        userIds.stream().mapToInt(userId -> stripeOf(userId, USER_SALT)))
+                .distinct()
+                .sorted()
+                .toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+    
+    private void acquire(ReentrantLock lock) {
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(RejectReason.INTERRUPTED, "预约请求被中断，请重试");
+        }
+        if (!acquired) {
+            throw new BusinessException(RejectReason.BUSY, "预约人数过多，请稍后重试");
+        }
+    }
+    
+    private int stripeOf(Long key, int salt) {
+        int h = Long.hashCode(key) * 0x9E3779B9 + salt;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
@@ -0,0 +1,236 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.BookingRequest;
+import com.hfut.studyroom.dto.BookingTicketDTO;
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.BookingRepository.BookingView;
+import com.hfut.studyroom.service.BookingService.AdmissionRequest;
+import com.hfut.studyroom.service.BookingService.AdmissionResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 排队预约服务
+ * 预约窗口开放时的高峰期使用：请求先进入有界队列，由固定数量的工作线程分批交给BookingService处理，
+ * 每批在一个事务中创建并一次提交，结果用一次投影查询加载；客户端凭票据轮询或等待结果，从而限制同时访问数据库的事务数
+ */
+@Slf4j
+@Service
+public class BookingAdmissionQueue {
+    
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    
+    @Value("${app.booking.queue.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.booking.queue.capacity:10000}")
+    private int capacity;
+    
+    @Value("${app.booking.queue.workers:4}")
+    private int workers;
+    
+    @Value("${app.booking.queue.batch-size:32}")
+    private int batchSize;
+    
+    @Value("${app.booking.queue.ticket-ttl-seconds:300}")
+    private long ticketTtlSeconds;
+    
+    @Value("${app.booking.queue.max-wait-ms:10000}")
+    private long maxWaitMillis;
+    
+    private BlockingQueue<Ticket> queue;
+    private ExecutorService executor;
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    
+    public BookingAdmissionQueue(BookingService bookingService, BookingRepository bookingRepository) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "booking-queue-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::drain);
+        }
+        log.info("排队预约模式已开启：队列容量{}，工作线程{}个，批大小{}", capacity, workers, batchSize);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        List<Ticket> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(ticket -> ticket.complete(BookingTicketDTO.failed(ticket.id, "服务正在关闭，请重新预约")));
+    }
+    
+    /**
+     * 提交预约请求，返回排队票据
+     */
+    public BookingTicketDTO submit(Long userId, BookingRequest request) {
+        if (!enabled) {
+            throw new BusinessException("排队预约模式未开启");
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString().replace("-", ""), userId, request);
+        tickets.put(ticket.id, ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            throw new BusinessException(429, "当前排队人数过多，请稍后再试");
+        }
+        return BookingTicketDTO.queued(ticket.id);
+    }
+    
+    /**
+     * 查询票据结果，最多等待waitMillis毫秒（0表示立即返回）
+     */
+    public CompletableFuture<BookingTicketDTO> poll(String ticketId, Long userId, long waitMillis) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            throw new BusinessException("票据不存在或已过期");
+        }
+        if (ticket.result.isDone() || waitMillis <= 0) {
+            return CompletableFuture.completedFuture(ticket.result.getNow(BookingTicketDTO.queued(ticketId)));
+        }
+        return ticket.result.copy()
+                .completeOnTimeout(BookingTicketDTO.queued(ticketId),
+                        Math.min(waitMillis, maxWaitMillis), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 清理过期票据
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpiredTickets() {
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ticketTtlSeconds);
+        tickets.values().removeIf(ticket -> ticket.completedAt > 0 && ticket.completedAt < deadline);
+    }
+    
+    private void drain() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            process(batch);
+            batch.clear();
+        }
+    }
+    
+    /**
+     * 整批在一个事务中创建；整批失败（如锁等待超时、数据库异常）时逐个重试
+     */
+    private void process(List<Ticket> batch) {
+        List<AdmissionResult> results;
+        try {
+            results = bookingService.createBookings(batch.stream()
+                    .map(ticket -> new AdmissionRequest(ticket.userId, ticket.request))
+                    .toList());
+        } catch (Exception e) {
+            log.warn("排队预约批量处理失败，逐个重试：{}个请求，{}", batch.size(), e.getMessage());
+            results = batch.stream().map(this::processSingle).toList();
+        }
+        complete(batch, results);
+    }
+    
+    private AdmissionResult processSingle(Ticket ticket) {
+        try {
+            return new AdmissionResult(bookingService.createBooking(ticket.userId, ticket.request), null);
+        } catch (BusinessException e) {
+            return new AdmissionResult(null, e);
+        } catch (Exception e) {
+            log.error("排队预约处理失败：ticket={}", ticket.id, e);
+            return new AdmissionResult(null, new BusinessException(500, "系统错误：" + e.getMessage()));
+        }
+    }
+    
+    /**
+     * 一次查询加载整批成功预约的展示信息，完成票据
+     */
+    private void complete(List<Ticket> batch, List<AdmissionResult> results) {
+        List<Long> bookingIds = results.stream()
+                .map(AdmissionResult::booking)
+                .filter(Objects::nonNull)
+                .map(Booking::getId)
+                .toList();
+        Map<Long, BookingView> views = Map.of();
+        if (!bookingIds.isEmpty()) {
+            try {
+                views = bookingRepository.findViewsByIdIn(bookingIds).stream()
+                        .collect(Collectors.toMap(BookingView::getId, Function.identity()));
+            } catch (Exception e) {
+                log.error("加载排队预约结果失败：{}个预约", bookingIds.size(), e);
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Ticket ticket = batch.get(i);
+            AdmissionResult result = results.get(i);
+            if (result.booking() == null) {
+                ticket.complete(BookingTicketDTO.failed(ticket.id, result.rejection().getMessage()));
+            } else {
+                BookingView view = views.get(result.booking().getId());
+                ticket.complete(BookingTicketDTO.success(ticket.id, view == null ? null : BookingDTO.fromView(view)));
+            }
+        }
+    }
+    
+    private static final class Ticket {
+        
+        final String id;
+        final Long userId;
+        final BookingRequest request;
+        final CompletableFuture<BookingTicketDTO> result = new CompletableFuture<>();
+        volatile long completedAt;
+        
+        Ticket(String id, Long userId, BookingRequest request) {
+            this.id = id;
+            this.userId = userId;
+            this.request = request;
+        }
+        
+        void complete(BookingTicketDTO dto) {
+            completedAt = System.currentTimeMillis();
+            result.complete(dto);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.BookingRepository.BookingKey;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 预约批量状态变更服务
+ * 使用集合式UPDATE/DELETE代替逐条加载、修改、saveAll；
+ * 按ID分块执行，每块一个短事务，先锁定本块记录再批量更新，并同步内存索引
+ */
+@Slf4j
+@Service
+public class BookingBatchService {
+    
+    private final BookingRepository bookingRepository;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final UserBookingLedger userBookingLedger;
+    private final BookingExpiryEngine bookingExpiryEngine;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.booking.batch.chunk-size:500}")
+    private int chunkSize;
+    
+    public BookingBatchService(
+            BookingRepository bookingRepository,
+            SeatAvailabilityIndex seatAvailabilityIndex,
+            UserBookingLedger userBookingLedger,
+            BookingExpiryEngine bookingExpiryEngine,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.seatAvailabilityIndex = seatAvailabilityIndex;
+        this.userBookingLedger = userBookingLedger;
+        this.bookingExpiryEngine = bookingExpiryEngine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 将开始时间早于threshold的PENDING预约设为TIMEOUT
+     * @return 影响行数
+     */
+    public int timeoutPending(LocalDateTime threshold) {
+        return runInChunks(
+                afterId -> bookingRepository.lockTimeoutPendingChunk(threshold, afterId, nextChunk()),
+                (fromId, toId) -> bookingRepository.timeoutPendingChunk(threshold, fromId, toId),
+                Release.REFUND_HOURS);
+    }
+    
+    /**
+     * 将结束时间早于now的ACTIVE预约设为COMPLETED
+     * @return 影响行数
+     */
+    public int completeExpired(LocalDateTime now) {
+        return runInChunks(
+                afterId -> bookingRepository.lockExpiredActiveChunk(now, afterId, nextChunk()),
+                (fromId, toId) -> bookingRepository.completeExpiredChunk(now, fromId, toId),
+                Release.KEEP_HOURS);
+    }
+    
+    /**
+     * 取消指定教室指定日期的全部PENDING预约（如教室临时关闭）
+     * @return 影响行数
+     */
+    public int cancelClassroomBookings(Long classroomId, LocalDate date) {
+        return runInChunks(
+                afterId -> bookingRepository.lockClassroomPendingChunk(classroomId, date, afterId, nextChunk()),
+                (fromId, toId) -> bookingRepository.cancelClassroomPendingChunk(classroomId, date, fromId, toId),
+                Release.REFUND_HOURS);
+    }
+    
+    /**
+     * 删除指定日期之前已结束（完成/取消/超时/违约）的预约
+     * @return 影响行数
+     */
+    public int deleteFinishedBefore(LocalDate before) {
+        return runInChunks(
+                afterId -> bookingRepository.findFinishedChunk(before, afterId, nextChunk()),
+                (fromId, toId) -> bookingRepository.deleteFinishedChunk(before, fromId, toId),
+                Release.NONE);
+    }
+    
+    private PageRequest nextChunk() {
+        return PageRequest.of(0, chunkSize);
+    }
+    
+    /**
+     * 按ID升序逐块执行：锁定一块记录，按该块的ID范围批量更新，提交后再处理下一块
+     */
+    private int runInChunks(
+            Function<Long, List<BookingKey>> chunkLoader,
+            ToIntBiFunction<Long, Long> chunkUpdater,
+            Release release
+    ) {
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            long cursor = afterId;
+            ChunkResult result = transactionTemplate.execute(status -> {
+                List<BookingKey> keys = chunkLoader.apply(cursor);
+                if (keys.isEmpty()) {
+                    return null;
+                }
+                Long fromId = keys.get(0).getId();
+                Long toId = keys.get(keys.size() - 1).getId();
+                int affected = chunkUpdater.applyAsInt(fromId, toId);
+                if (release != Release.NONE) {
+                    for (BookingKey key : keys) {
+                        seatAvailabilityIndex.release(key.getId(), key.getSeatId(), key.getBookingDate());
+                        if (release == Release.REFUND_HOURS) {
+                            userBookingLedger.refund(key.getId());
+                        } else {
+                            userBookingLedger.release(key.getId());
+                        }
+                        bookingExpiryEngine.cancel(key.getId());
+                    }
+                }
+                return new ChunkResult(toId, keys.size(), affected);
+            });
+            if (result == null) {
+                return total;
+            }
+            total += result.affected();
+            afterId = result.lastId();
+            if (result.size() < chunkSize) {
+                return total;
+            }
+        }
+    }
+    
+    private record ChunkResult(long lastId, int size, int affected) {
+    }
+    
+    /**
+     * 批量变更后如何同步内存索引
+     */
+    private enum Release {
+        /** 不同步（删除的都是已结束的预约） */
+        NONE,
+        /** 释放座位，时长仍计入用户本周时长（自动完成） */
+        KEEP_HOURS,
+        /** 释放座位并退回用户本周时长（超时、取消） */
+        REFUND_HOURS
+    }
+}
@@ -0,0 +1,218 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.BookingRepository.PendingBooking;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约超时引擎
+ * 以「开始时间 + 超时分钟数」为到期时间，将PENDING预约放入延迟队列，
+ * 到期时只处理这一条预约，不再每分钟扫描全部PENDING预约。
+ * 创建预约时登记，签到/取消时撤销，启动时从数据库重建。
+ */
+@Slf4j
+@Component
+public class BookingExpiryEngine {
+    
+    private final BookingRepository bookingRepository;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final UserBookingLedger userBookingLedger;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.booking.timeout-minutes:15}")
+    private int timeoutMinutes;
+    
+    @Value("${app.booking.expiry.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.booking.expiry.retry-seconds:30}")
+    private int retrySeconds;
+    
+    private final DelayQueue<ExpiryTask> queue = new DelayQueue<>();
+    private final ConcurrentMap<Long, ExpiryTask> tasks = new ConcurrentHashMap<>();
+    private volatile Thread dispatcher;
+    
+    public BookingExpiryEngine(
+            BookingRepository bookingRepository,
+            SeatAvailabilityIndex seatAvailabilityIndex,
+            UserBookingLedger userBookingLedger,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.seatAvailabilityIndex = seatAvailabilityIndex;
+        this.userBookingLedger = userBookingLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 启动时加载所有PENDING预约（只取ID、座位和开始时间）并启动分发线程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<PendingBooking> pendingBookings = bookingRepository.findPendingBookings();
+        pendingBookings.forEach(pending -> register(
+                pending.getId(), pending.getSeatId(), pending.getBookingDate(), pending.getStartTime()));
+        dispatcher = new Thread(this::dispatch, "booking-expiry");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        log.info("预约超时引擎已启动：登记{}条待签到预约", pendingBookings.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+    }
+    
+    /**
+     * 登记预约的超时时间（所在事务提交后生效）
+     */
+    public void schedule(Booking booking) {
+        TransactionHooks.afterCommit(() -> register(
+                booking.getId(), booking.getSeat().getId(), booking.getBookingDate(), booking.getStartTime()));
+    }
+    
+    /**
+     * 撤销预约的超时登记并移出延迟队列（所在事务提交后生效）
+     */
+    public void cancel(Long bookingId) {
+        TransactionHooks.afterCommit(() -> {
+            ExpiryTask task = tasks.remove(bookingId);
+            if (task != null) {
+                task.cancelled = true;
+                queue.remove(task);
+            }
+        });
+    }
+    
+    /**
+     * 当前登记的预约数
+     */
+    public int size() {
+        return tasks.size();
+    }
+    
+    private void register(Long bookingId, Long seatId, LocalDate bookingDate, LocalTime startTime) {
+        LocalDateTime deadline = LocalDateTime.of(bookingDate, startTime).plusMinutes(timeoutMinutes);
+        ExpiryTask task = new ExpiryTask(bookingId, seatId, bookingDate,
+                deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        ExpiryTask previous = tasks.put(bookingId, task);
+        if (previous != null) {
+            previous.cancelled = true;
+            queue.remove(previous);
+        }
+        queue.put(task);
+    }
+    
+    /**
+     * 超时事务失败时，将本批预约延迟后重新入队（期间已被撤销或重新登记的除外）
+     */
+    private void retry(List<ExpiryTask> failed) {
+        long retryAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(retrySeconds);
+        for (ExpiryTask task : failed) {
+            ExpiryTask retryTask = new ExpiryTask(task.bookingId, task.seatId, task.bookingDate, retryAt);
+            if (tasks.putIfAbsent(task.bookingId, retryTask) == null) {
+                queue.put(retryTask);
+            }
+        }
+        log.warn("{}个超时预约处理失败，{}秒后重试", failed.size(), retrySeconds);
+    }
+    
+    private void dispatch() {
+        List<ExpiryTask> due = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                due.add(queue.take());
+                queue.drainTo(due, batchSize - 1);
+                expire(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("处理超时预约失败", e);
+            } finally {
+                due.clear();
+            }
+        }
+    }
+    
+    /**
+     * 将到期的预约标记为TIMEOUT
+     * 以status='PENDING'为更新条件，已签到或已取消的预约不受影响，每条预约最多被处理一次
+     */
+    private void expire(List<ExpiryTask> due) {
+        List<ExpiryTask> live = due.stream()
+                .filter(task -> !task.cancelled && tasks.remove(task.bookingId, task))
+                .toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        Integer released;
+        try {
+            released = transactionTemplate.execute(status -> {
+                int count = 0;
+                for (ExpiryTask task : live) {
+                    if (bookingRepository.markTimeout(task.bookingId) > 0) {
+                        seatAvailabilityIndex.release(task.bookingId, task.seatId, task.bookingDate);
+                        userBookingLedger.refund(task.bookingId);
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException e) {
+            log.error("处理超时预约失败", e);
+            retry(live);
+            return;
+        }
+        if (released != null && released > 0) {
+            log.info("释放{}个超时未签到的预约", released);
+        }
+    }
+    
+    private static final class ExpiryTask implements Delayed {
+        
+        final Long bookingId;
+        final Long seatId;
+        final LocalDate bookingDate;
+        final long deadlineMillis;
+        volatile boolean cancelled;
+        
+        ExpiryTask(Long bookingId, Long seatId, LocalDate bookingDate, long deadlineMillis) {
+            this.bookingId = bookingId;
+            this.seatId = seatId;
+            this.bookingDate = bookingDate;
+            this.deadlineMillis = deadlineMillis;
+        }
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((ExpiryTask) other).deadlineMillis);
+        }
+    }
+}
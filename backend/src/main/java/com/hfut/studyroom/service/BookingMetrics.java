@@ -0,0 +1,64 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.exception.BusinessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 预约与座位查询指标
+ * booking.operation：预约操作耗时，按操作、结果（success/rejected/error）和拒绝原因（RejectReason）分组
+ * seat.availability.query：座位可用性查询耗时，按查询类型和数据来源（index/database）分组
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingMetrics {
+    
+    private static final String NONE = "none";
+    
+    private final MeterRegistry meterRegistry;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    
+    /**
+     * 记录预约操作，业务异常按RejectReason记录拒绝原因，其他异常记录异常类名
+     */
+    public <T> T recordBooking(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        String reason = NONE;
+        try {
+            return action.get();
+        } catch (BusinessException e) {
+            outcome = "rejected";
+            reason = e.getReason().tag();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            reason = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("booking.operation")
+                    .description("预约操作耗时")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .tag("reason", reason)
+                    .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * 记录座位可用性查询
+     */
+    public <T> T recordSeatQuery(String query, Supplier<T> action) {
+        String source = seatAvailabilityIndex.isReady() ? "index" : "database";
+        return Timer.builder("seat.availability.query")
+                .description("座位可用性查询耗时")
+                .tag("query", query)
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(action);
+    }
+}
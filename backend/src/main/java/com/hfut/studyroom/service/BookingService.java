@@ -5,14 +5,16 @@ import com.hfut.studyroom.entity.Booking;
 import com.hfut.studyroom.entity.Seat;
 import com.hfut.studyroom.entity.User;
 import com.hfut.studyroom.exception.BusinessException;
-import com.hfut.studyroom.repository.BlacklistRepository;
+import com.hfut.studyroom.exception.RejectReason;
 import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.BookingRepository.BookingView;
 import com.hfut.studyroom.repository.SeatRepository;
 import com.hfut.studyroom.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,51 +27,87 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final SeatRepository seatRepository;
     private final UserRepository userRepository;
-    private final BlacklistRepository blacklistRepository;
+    private final BlacklistCache blacklistCache;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final UserBookingLedger userBookingLedger;
+    private final BookingAdmissionLocks admissionLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingExpiryEngine bookingExpiryEngine;
+    private final BookingMetrics bookingMetrics;
     
     /**
      * 创建预约
+     * 持有座位锁和用户锁直到事务提交，保证冲突检查与写入的原子性
      */
-    @Transactional
     public Booking createBooking(Long userId, BookingRequest request) {
+        return bookingMetrics.recordBooking("create", () -> admissionLocks.withSeatAndUser(request.getSeatId(), userId,
+                () -> transactionTemplate.execute(status -> doCreateBooking(userId, request))));
+    }
+    
+    /**
+     * 批量创建预约（排队模式用）
+     * 持有整批请求涉及的座位锁和用户锁，在同一个事务中依次创建，每批只提交一次。
+     * 业务校验都在写入之前，单个请求被拒绝（BusinessException）不影响同批其他请求；
+     * 其他异常使整批回滚并抛出，由调用方逐个重试。返回结果与请求一一对应
+     */
+    public List<AdmissionResult> createBookings(List<AdmissionRequest> requests) {
+        List<Long> seatIds = requests.stream().map(admission -> admission.request().getSeatId()).toList();
+        List<Long> userIds = requests.stream().map(AdmissionRequest::userId).toList();
+        return admissionLocks.withSeatsAndUsers(seatIds, userIds, () -> transactionTemplate.execute(status -> {
+            List<AdmissionResult> results = new ArrayList<>(requests.size());
+            for (AdmissionRequest admission : requests) {
+                try {
+                    results.add(new AdmissionResult(bookingMetrics.recordBooking("create",
+                            () -> doCreateBooking(admission.userId(), admission.request())), null));
+                } catch (BusinessException e) {
+                    results.add(new AdmissionResult(null, e));
+                }
+            }
+            return results;
+        }));
+    }
+    
+    /**
+     * 批量预约请求
+     */
+    public record AdmissionRequest(Long userId, BookingRequest request) {
+    }
+    
+    /**
+     * 批量预约结果，booking与rejection有且只有一个不为空
+     */
+    public record AdmissionResult(Booking booking, BusinessException rejection) {
+    }
+    
+    private Booking doCreateBooking(Long userId, BookingRequest request) {
         // 1. 检查用户是否存在
         User user = userRepository.findById(userId)
-                .orElseThrow(() -> new BusinessException("用户不存在"));
+                .orElseThrow(() -> new BusinessException(RejectReason.USER_NOT_FOUND, "用户不存在"));
         
         // 2. 检查用户是否在黑名单
-        if (blacklistRepository.existsByUserId(userId)) {
-            throw new BusinessException("您已被加入黑名单，无法预约");
+        if (blacklistCache.isBlacklisted(userId)) {
+            throw new BusinessException(RejectReason.BLACKLISTED, "您已被加入黑名单，无法预约");
         }
         
-        // 3. 检查用户当天是否已有有效预约（PENDING或ACTIVE状态）
-        long sameDayBookingCount = bookingRepository.countByUserIdAndBookingDateAndStatusIn(
-                userId,
-                request.getBookingDate(),
-                java.util.Arrays.asList("PENDING", "ACTIVE"));
-        if (sameDayBookingCount > 0) {
-            throw new BusinessException("您在当天已有预约，每天只能预约一次");
-        }
+        // 3. 检查每日预约次数与每周预约时长
+        userBookingLedger.checkQuota(userId, request.getBookingDate(), request.getStartTime(), request.getEndTime());
         
         // 4. 检查座位是否存在
         Seat seat = seatRepository.findById(request.getSeatId())
-                .orElseThrow(() -> new BusinessException("座位不存在"));
+                .orElseThrow(() -> new BusinessException(RejectReason.SEAT_NOT_FOUND, "座位不存在"));
         
         // 5. 检查座位是否已被预约（时间冲突）
-        if (bookingRepository.existsConflictBooking(
-                request.getSeatId(),
-                request.getBookingDate(),
-                request.getStartTime(),
-                request.getEndTime())) {
-            throw new BusinessException("该座位在此时间段已被预约");
+        if (hasSeatConflict(request)) {
+            throw new BusinessException(RejectReason.SEAT_CONFLICT, "该座位在此时间段已被预约");
         }
         
         // 6. 检查用户在该时间段是否已有其他预约
-        if (bookingRepository.existsUserBookingInTime(
+        if (userBookingLedger.hasOverlap(
                 userId,
                 request.getBookingDate(),
                 request.getStartTime(),
                 request.getEndTime())) {
-            throw new BusinessException("您在此时间段已有其他预约");
+            throw new BusinessException(RejectReason.USER_TIME_CONFLICT, "您在此时间段已有其他预约");
         }
         
         // 7. 创建预约
@@ -81,27 +119,53 @@ public class BookingService {
         booking.setEndTime(request.getEndTime());
         booking.setStatus("PENDING");
         
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        seatAvailabilityIndex.occupy(saved);
+        userBookingLedger.occupy(saved);
+        bookingExpiryEngine.schedule(saved);
+        return saved;
+    }
+    
+    /**
+     * 检查座位时间冲突（优先使用内存索引）
+     */
+    private boolean hasSeatConflict(BookingRequest request) {
+        if (seatAvailabilityIndex.isReady()) {
+            return !seatAvailabilityIndex.isFree(
+                    request.getSeatId(),
+                    request.getBookingDate(),
+                    request.getStartTime(),
+                    request.getEndTime());
+        }
+        return bookingRepository.existsConflictBooking(
+                request.getSeatId(),
+                request.getBookingDate(),
+                request.getStartTime(),
+                request.getEndTime());
     }
     
     /**
      * 获取用户的预约列表
      */
-    public List<Booking> getMyBookings(Long userId) {
-        return bookingRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public List<BookingView> getMyBookings(Long userId) {
+        return bookingMetrics.recordBooking("list", () -> bookingRepository.findViewsByUserId(userId));
     }
     
     /**
      * 签到
      */
-    @Transactional
     public Booking checkIn(Long bookingId, Long userId) {
+        return bookingMetrics.recordBooking("check_in",
+                () -> transactionTemplate.execute(status -> doCheckIn(bookingId, userId)));
+    }
+    
+    private Booking doCheckIn(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BusinessException("预约不存在"));
+                .orElseThrow(() -> new BusinessException(RejectReason.BOOKING_NOT_FOUND, "预约不存在"));
         
         // 检查是否是本人的预约
         if (!booking.getUser().getId().equals(userId)) {
-            throw new BusinessException("无权操作此预约");
+            throw new BusinessException(RejectReason.NOT_OWNER, "无权操作此预约");
         }
         
         // 检查预约状态
@@ -113,7 +177,7 @@ public class BookingService {
                 case "VIOLATED" -> "该预约已违约，无法签到";
                 default -> "该预约状态异常，无法签到";
             };
-            throw new BusinessException(statusMsg);
+            throw new BusinessException(RejectReason.INVALID_STATUS, statusMsg);
         }
         
         // 检查签到时间（预约开始时间前30分钟到预约时间之间可以签到）
@@ -122,19 +186,23 @@ public class BookingService {
         LocalDateTime earliestCheckIn = bookingDateTime.minusMinutes(30);
         
         if (now.isBefore(earliestCheckIn)) {
-            throw new BusinessException("签到时间未到，请在预约开始前30分钟内签到");
+            throw new BusinessException(RejectReason.CHECK_IN_TOO_EARLY, "签到时间未到，请在预约开始前30分钟内签到");
         }
         
         if (now.isAfter(bookingDateTime.plusMinutes(15))) {
             // 超过预约开始时间15分钟，标记为违约
             booking.setStatus("VIOLATED");
             bookingRepository.save(booking);
-            throw new BusinessException("签到已超时，预约已自动取消");
+            seatAvailabilityIndex.release(booking);
+            userBookingLedger.release(booking.getId());
+            bookingExpiryEngine.cancel(booking.getId());
+            throw new BusinessException(RejectReason.CHECK_IN_EXPIRED, "签到已超时，预约已自动取消");
         }
         
         // 更新状态
         booking.setStatus("ACTIVE");
         booking.setCheckInTime(LocalDateTime.now());
+        bookingExpiryEngine.cancel(booking.getId());
         
         return bookingRepository.save(booking);
     }
@@ -142,24 +210,30 @@ public class BookingService {
     /**
      * 签退
      */
-    @Transactional
     public Booking checkOut(Long bookingId, Long userId) {
+        return bookingMetrics.recordBooking("check_out",
+                () -> transactionTemplate.execute(status -> doCheckOut(bookingId, userId)));
+    }
+    
+    private Booking doCheckOut(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BusinessException("预约不存在"));
+                .orElseThrow(() -> new BusinessException(RejectReason.BOOKING_NOT_FOUND, "预约不存在"));
         
         // 检查是否是本人的预约
         if (!booking.getUser().getId().equals(userId)) {
-            throw new BusinessException("无权操作此预约");
+            throw new BusinessException(RejectReason.NOT_OWNER, "无权操作此预约");
         }
         
         // 检查预约状态
         if (!"ACTIVE".equals(booking.getStatus())) {
-            throw new BusinessException("该预约无法签退");
+            throw new BusinessException(RejectReason.INVALID_STATUS, "该预约无法签退");
         }
         
         // 更新状态
         booking.setStatus("COMPLETED");
         booking.setCheckOutTime(LocalDateTime.now());
+        seatAvailabilityIndex.release(booking);
+        userBookingLedger.release(booking.getId());
         
         return bookingRepository.save(booking);
     }
@@ -167,23 +241,30 @@ public class BookingService {
     /**
      * 取消预约
      */
-    @Transactional
     public Booking cancelBooking(Long bookingId, Long userId) {
+        return bookingMetrics.recordBooking("cancel",
+                () -> transactionTemplate.execute(status -> doCancelBooking(bookingId, userId)));
+    }
+    
+    private Booking doCancelBooking(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new BusinessException("预约不存在"));
+                .orElseThrow(() -> new BusinessException(RejectReason.BOOKING_NOT_FOUND, "预约不存在"));
         
         // 检查是否是本人的预约
         if (!booking.getUser().getId().equals(userId)) {
-            throw new BusinessException("无权操作此预约");
+            throw new BusinessException(RejectReason.NOT_OWNER, "无权操作此预约");
         }
         
         // 只有PENDING状态才能取消
         if (!"PENDING".equals(booking.getStatus())) {
-            throw new BusinessException("该预约无法取消");
+            throw new BusinessException(RejectReason.INVALID_STATUS, "该预约无法取消");
         }
         
         // 更新状态
         booking.setStatus("CANCELLED");
+        seatAvailabilityIndex.release(booking);
+        userBookingLedger.refund(booking.getId());
+        bookingExpiryEngine.cancel(booking.getId());
         
         return bookingRepository.save(booking);
     }
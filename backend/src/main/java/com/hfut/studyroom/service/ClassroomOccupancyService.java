@@ -25,6 +25,7 @@ public class ClassroomOccupancyService {
     
     private final ClassroomOccupancyRepository occupancyRepository;
     private final ClassroomRepository classroomRepository;
+    private final SeatMapVersions seatMapVersions;
     
     /**
      * 创建教室占用记录
@@ -56,6 +57,7 @@ public class ClassroomOccupancyService {
         occupancy.setStatus("SCHEDULED");
         occupancy.setRemarks(request.getRemarks());
         
+        seatMapVersions.classroomChanged(classroom.getId(), occupancy.getOccupancyDate());
         return occupancyRepository.save(occupancy);
     }
     
@@ -77,10 +79,13 @@ public class ClassroomOccupancyService {
             Classroom classroom = classroomRepository.findById(request.getClassroomId())
                     .orElseThrow(() -> new BusinessException("教室不存在"));
             
+            // 原教室和日期的座位状态同样改变
+            seatMapVersions.classroomChanged(occupancy.getClassroom().getId(), occupancy.getOccupancyDate());
             occupancy.setClassroom(classroom);
             occupancy.setOccupancyDate(request.getOccupancyDateAsLocalDate());
             occupancy.setStartTime(request.getStartTimeAsLocalTime());
             occupancy.setEndTime(request.getEndTimeAsLocalTime());
+            seatMapVersions.classroomChanged(classroom.getId(), occupancy.getOccupancyDate());
         }
         
         occupancy.setReason(request.getReason());
@@ -101,6 +106,7 @@ public class ClassroomOccupancyService {
         
         occupancy.setStatus("CANCELLED");
         occupancyRepository.save(occupancy);
+        seatMapVersions.classroomChanged(occupancy.getClassroom().getId(), occupancy.getOccupancyDate());
     }
     
     /**
@@ -108,10 +114,10 @@ public class ClassroomOccupancyService {
      */
     @Transactional
     public void deleteOccupancy(Long id) {
-        if (!occupancyRepository.existsById(id)) {
-            throw new BusinessException("占用记录不存在");
-        }
-        occupancyRepository.deleteById(id);
+        ClassroomOccupancy occupancy = occupancyRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("占用记录不存在"));
+        occupancyRepository.delete(occupancy);
+        seatMapVersions.classroomChanged(occupancy.getClassroom().getId(), occupancy.getOccupancyDate());
     }
     
     /**
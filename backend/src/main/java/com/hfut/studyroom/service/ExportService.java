@@ -0,0 +1,164 @@
+package com.hfut.studyroom.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.ClassroomOccupancyDTO;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.ClassroomOccupancyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 数据导出服务
+ * 通过数据库游标逐行读取，边读边写入输出流，内存占用与导出行数无关
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+    
+    private static final String[] BOOKING_HEADERS = {
+            "预约ID", "用户ID", "用户名", "座位ID", "座位号", "教室", "教学楼",
+            "开始时间", "结束时间", "状态", "创建时间"
+    };
+    
+    private static final String[] OCCUPANCY_HEADERS = {
+            "记录ID", "教室ID", "教室", "教学楼", "日期", "开始时间", "结束时间",
+            "原因", "类型", "占用方", "状态", "备注", "创建时间"
+    };
+    
+    private final BookingRepository bookingRepository;
+    private final ClassroomOccupancyRepository occupancyRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * 导出格式
+     */
+    public enum ExportFormat {
+        CSV("text/csv;charset=UTF-8", ".csv"),
+        NDJSON("application/x-ndjson", ".ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static ExportFormat of(String format) {
+            for (ExportFormat value : values()) {
+                if (value.name().equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new BusinessException("不支持的导出格式：" + format);
+        }
+    }
+    
+    /**
+     * 导出全部预约记录
+     * @return 导出行数
+     */
+    @Transactional(readOnly = true)
+    public long exportBookings(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BookingDTO> rows = bookingRepository.streamAllViews().map(BookingDTO::fromView)) {
+            long count = write(rows, format, out, BOOKING_HEADERS, dto -> new Object[]{
+                    dto.getId(), dto.getUserId(), dto.getUsername(), dto.getSeatId(), dto.getSeatNumber(),
+                    dto.getClassroomName(), dto.getBuildingName(), dto.getStartTime(), dto.getEndTime(),
+                    dto.getStatus(), dto.getCreatedAt()
+            });
+            log.info("导出预约记录{}条", count);
+            return count;
+        }
+    }
+    
+    /**
+     * 导出全部教室占用记录
+     * @return 导出行数
+     */
+    @Transactional(readOnly = true)
+    public long exportOccupancies(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ClassroomOccupancyDTO> rows = occupancyRepository.streamAllViews()
+                .map(ClassroomOccupancyDTO::fromView)) {
+            long count = write(rows, format, out, OCCUPANCY_HEADERS, dto -> new Object[]{
+                    dto.getId(), dto.getClassroomId(), dto.getClassroomName(), dto.getBuildingName(),
+                    dto.getOccupancyDate(), dto.getStartTime(), dto.getEndTime(), dto.getReason(),
+                    dto.getType(), dto.getOccupiedBy(), dto.getStatus(), dto.getRemarks(), dto.getCreatedAt()
+            });
+            log.info("导出教室占用记录{}条", count);
+            return count;
+        }
+    }
+    
+    private <T> long write(
+            Stream<T> rows,
+            ExportFormat format,
+            OutputStream out,
+            String[] headers,
+            Function<T, Object[]> columns
+    ) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        long count = 0;
+        if (format == ExportFormat.CSV) {
+            // 写入BOM，Excel打开时可正确识别UTF-8中文
+            writer.write('\uFEFF');
+            writeCsvLine(writer, headers);
+        }
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, columns.apply(row));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+    
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+    
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,56 @@
+package com.hfut.studyroom.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最后登录时间延迟写入
+ * 登录时只在内存中记录，定时合并成一次JDBC批量更新（同一用户多次登录只写最后一次），
+ * 登录请求不再占用数据库连接和写事务；应用关闭前写入剩余记录
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LastLoginRecorder {
+    
+    private static final String UPDATE_SQL = "UPDATE app_user SET last_login_time = ? WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.put(userId, loginTime);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.login.last-login-flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(pending.size());
+        for (Long userId : List.copyOf(pending.keySet())) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                rows.add(new Object[]{Timestamp.valueOf(loginTime), userId});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        log.debug("写入{}个用户的最后登录时间", rows.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+}
@@ -0,0 +1,79 @@
+package com.hfut.studyroom.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hfut.studyroom.exception.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 登录失败限流
+ * 分别按用户名和客户端IP统计一段时间内的登录失败次数，超过上限后在窗口结束前直接拒绝登录，
+ * 不再进行密码校验，避免暴力破解占用密码校验线程池
+ */
+@Component
+public class LoginThrottle {
+    
+    private final Cache<String, AtomicInteger> usernameFailures;
+    private final Cache<String, AtomicInteger> ipFailures;
+    private final int maxUsernameFailures;
+    private final int maxIpFailures;
+    private final long windowMinutes;
+    
+    public LoginThrottle(
+            @Value("${app.login.throttle.window-minutes:5}") long windowMinutes,
+            @Value("${app.login.throttle.max-failures-per-username:5}") int maxUsernameFailures,
+            @Value("${app.login.throttle.max-failures-per-ip:50}") int maxIpFailures,
+            @Value("${app.login.throttle.max-entries:100000}") long maxEntries
+    ) {
+        this.usernameFailures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .maximumSize(maxEntries)
+                .build();
+        this.ipFailures = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .maximumSize(maxEntries)
+                .build();
+        this.maxUsernameFailures = maxUsernameFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.windowMinutes = windowMinutes;
+    }
+    
+    /**
+     * 检查是否允许登录，失败次数已达上限时抛出BusinessException(429)
+     */
+    public void check(String username, String ip) {
+        if (failures(usernameFailures, username) >= maxUsernameFailures
+                || failures(ipFailures, ip) >= maxIpFailures) {
+            throw new BusinessException(429, "登录失败次数过多，请" + windowMinutes + "分钟后再试");
+        }
+    }
+    
+    /**
+     * 记录一次登录失败（窗口从第一次失败开始计时）
+     */
+    public void recordFailure(String username, String ip) {
+        usernameFailures.get(username, key -> new AtomicInteger()).incrementAndGet();
+        if (ip != null) {
+            ipFailures.get(ip, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+    
+    /**
+     * 登录成功后清除该用户名的失败记录
+     */
+    public void reset(String username) {
+        usernameFailures.invalidate(username);
+    }
+    
+    private static int failures(Cache<String, AtomicInteger> cache, String key) {
+        if (key == null) {
+            return 0;
+        }
+        AtomicInteger count = cache.getIfPresent(key);
+        return count == null ? 0 : count.get();
+    }
+}
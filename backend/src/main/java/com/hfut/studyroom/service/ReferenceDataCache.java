@@ -0,0 +1,275 @@
+package com.hfut.studyroom.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hfut.studyroom.entity.Building;
+import com.hfut.studyroom.entity.Classroom;
+import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.repository.BuildingRepository;
+import com.hfut.studyroom.repository.ClassroomRepository;
+import com.hfut.studyroom.repository.SeatRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 教学楼、教室、座位基础数据缓存
+ * 缓存的实体已加载好「座位 -> 教室 -> 教学楼」关联，转换DTO时不再访问数据库。
+ * 缓存对象由所有请求共享，只能读取，不能修改；需要修改时请从Repository重新加载。
+ * 管理端修改教室或座位后需调用evictClassroom，在事务提交后失效对应缓存，同时递增数据版本（用作ETag）。
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+    
+    private static final Long ALL = 0L;
+    
+    private final SeatRepository seatRepository;
+    
+    private final LoadingCache<Long, List<Building>> buildings;
+    private final LoadingCache<Long, List<Classroom>> classroomsByBuilding;
+    private final LoadingCache<Long, Optional<Classroom>> classroomById;
+    private final LoadingCache<Long, List<Seat>> seatsByClassroom;
+    
+    /**
+     * 座位所属教室ID（加载座位列表时一并写入，随教室缓存一起失效）
+     */
+    private final LoadingCache<Long, Long> classroomIdBySeat;
+    
+    /**
+     * 基础数据版本，每次失效缓存时递增
+     */
+    private final AtomicLong version = new AtomicLong();
+    
+    @Value("${app.reference-cache.warm-up:true}")
+    private boolean warmUp;
+    
+    public ReferenceDataCache(
+            BuildingRepository buildingRepository,
+            ClassroomRepository classroomRepository,
+            SeatRepository seatRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.reference-cache.max-classrooms:1000}") long maxClassrooms,
+            @Value("${app.reference-cache.max-seats:100000}") long maxSeats,
+            @Value("${app.reference-cache.ttl-minutes:60}") long ttlMinutes
+    ) {
+        this.seatRepository = seatRepository;
+        Duration ttl = Duration.ofMinutes(ttlMinutes);
+        this.buildings = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(key -> List.copyOf(buildingRepository.findAll(Sort.by("id"))));
+        this.classroomsByBuilding = Caffeine.newBuilder()
+                .maximumSize(maxClassrooms)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(buildingId -> List.copyOf(classroomRepository.findWithBuildingByBuildingId(buildingId)));
+        this.classroomById = Caffeine.newBuilder()
+                .maximumSize(maxClassrooms)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(classroomRepository::findWithBuildingById);
+        this.seatsByClassroom = Caffeine.newBuilder()
+                .maximumSize(maxClassrooms)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new SeatLoader());
+        this.classroomIdBySeat = Caffeine.newBuilder()
+                .maximumSize(maxSeats)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(seatId -> seatRepository.findById(seatId)
+                        .map(seat -> seat.getClassroom().getId())
+                        .orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, buildings, "reference.buildings");
+        CaffeineCacheMetrics.monitor(meterRegistry, classroomsByBuilding, "reference.classroomsByBuilding");
+        CaffeineCacheMetrics.monitor(meterRegistry, classroomById, "reference.classroomById");
+        CaffeineCacheMetrics.monitor(meterRegistry, seatsByClassroom, "reference.seatsByClassroom");
+        CaffeineCacheMetrics.monitor(meterRegistry, classroomIdBySeat, "reference.classroomIdBySeat");
+    }
+    
+    /**
+     * 启动时预加载全部教学楼、教室和座位
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        int seatCount = 0;
+        for (Building building : getBuildings()) {
+            List<Classroom> classrooms = getClassrooms(building.getId());
+            classrooms.forEach(classroom -> classroomById.put(classroom.getId(), Optional.of(classroom)));
+            seatCount += seatsByClassroom.getAll(classrooms.stream().map(Classroom::getId).toList())
+                    .values().stream()
+                    .mapToInt(List::size)
+                    .sum();
+        }
+        log.info("基础数据缓存预加载完成：{}个教室，{}个座位", classroomById.estimatedSize(), seatCount);
+    }
+    
+    /**
+     * 全部教学楼（按ID排序）
+     */
+    public List<Building> getBuildings() {
+        return buildings.get(ALL);
+    }
+    
+    public Optional<Building> getBuilding(Long buildingId) {
+        return getBuildings().stream()
+                .filter(building -> building.getId().equals(buildingId))
+                .findFirst();
+    }
+    
+    /**
+     * 教学楼的全部教室（按ID排序）
+     */
+    public List<Classroom> getClassrooms(Long buildingId) {
+        return classroomsByBuilding.get(buildingId);
+    }
+    
+    /**
+     * 全部教室（按教学楼、ID排序）
+     */
+    public List<Classroom> getAllClassrooms() {
+        return getBuildings().stream()
+                .flatMap(building -> getClassrooms(building.getId()).stream())
+                .collect(Collectors.toList());
+    }
+    
+    public Optional<Classroom> getClassroom(Long classroomId) {
+        return classroomById.get(classroomId);
+    }
+    
+    /**
+     * 教室的全部座位（按ID排序）
+     */
+    public List<Seat> getSeats(Long classroomId) {
+        return seatsByClassroom.get(classroomId);
+    }
+    
+    /**
+     * 座位所属的教室ID（座位未加载过时查询一次数据库），座位不存在时返回null
+     */
+    public Long getClassroomIdOfSeat(Long seatId) {
+        return classroomIdBySeat.get(seatId);
+    }
+    
+    /**
+     * 基础数据版本（教学楼、教室、座位任一变更后递增）
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    /**
+     * 教学楼内所有开放教室的座位
+     */
+    public List<Seat> getOpenSeatsByBuilding(Long buildingId) {
+        List<Long> openClassroomIds = getClassrooms(buildingId).stream()
+                .filter(classroom -> "OPEN".equals(classroom.getStatus()))
+                .map(Classroom::getId)
+                .toList();
+        Map<Long, List<Seat>> seats = seatsByClassroom.getAll(openClassroomIds);
+        return openClassroomIds.stream()
+                .flatMap(classroomId -> seats.get(classroomId).stream())
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 教室或其座位变更后失效缓存（所在事务提交后生效）
+     */
+    public void evictClassroom(Long classroomId) {
+        TransactionHooks.afterCommit(() -> {
+            classroomById.invalidate(classroomId);
+            seatsByClassroom.invalidate(classroomId);
+            classroomIdBySeat.asMap().values().removeIf(classroomId::equals);
+            classroomsByBuilding.invalidateAll();
+            version.incrementAndGet();
+        });
+    }
+    
+    /**
+     * 失效全部缓存（所在事务提交后生效）
+     */
+    public void evictAll() {
+        TransactionHooks.afterCommit(() -> {
+            buildings.invalidateAll();
+            classroomsByBuilding.invalidateAll();
+            classroomById.invalidateAll();
+            seatsByClassroom.invalidateAll();
+            classroomIdBySeat.invalidateAll();
+            version.incrementAndGet();
+        });
+    }
+    
+    /**
+     * 各缓存的命中统计
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("buildings", toMap(buildings));
+        stats.put("classroomsByBuilding", toMap(classroomsByBuilding));
+        stats.put("classroomById", toMap(classroomById));
+        stats.put("seatsByClassroom", toMap(seatsByClassroom));
+        stats.put("classroomIdBySeat", toMap(classroomIdBySeat));
+        return stats;
+    }
+    
+    private Map<String, Object> toMap(LoadingCache<?, ?> cache) {
+        CacheStats cacheStats = cache.stats();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", cache.estimatedSize());
+        map.put("hitCount", cacheStats.hitCount());
+        map.put("missCount", cacheStats.missCount());
+        map.put("hitRate", cacheStats.hitRate());
+        map.put("loadCount", cacheStats.loadCount());
+        map.put("evictionCount", cacheStats.evictionCount());
+        map.put("averageLoadMillis", cacheStats.averageLoadPenalty() / 1_000_000.0);
+        return map;
+    }
+    
+    /**
+     * 座位加载器，批量获取时一条SQL加载多个教室的座位
+     */
+    private final class SeatLoader implements CacheLoader<Long, List<Seat>> {
+        
+        @Override
+        public List<Seat> load(Long classroomId) {
+            return record(List.copyOf(seatRepository.findWithLocationByClassroomIdIn(List.of(classroomId))));
+        }
+        
+        @Override
+        public Map<Long, List<Seat>> loadAll(Set<? extends Long> classroomIds) {
+            Map<Long, List<Seat>> grouped = record(seatRepository.findWithLocationByClassroomIdIn(List.copyOf(classroomIds)))
+                    .stream()
+                    .collect(Collectors.groupingBy(seat -> seat.getClassroom().getId(),
+                            Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+            Map<Long, List<Seat>> result = new LinkedHashMap<>();
+            classroomIds.forEach(classroomId -> result.put(classroomId, grouped.getOrDefault(classroomId, List.of())));
+            return result;
+        }
+        
+        private List<Seat> record(List<Seat> seats) {
+            seats.forEach(seat -> classroomIdBySeat.put(seat.getId(), seat.getClassroom().getId()));
+            return seats;
+        }
+    }
+}
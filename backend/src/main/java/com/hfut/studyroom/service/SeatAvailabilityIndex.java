@@ -0,0 +1,301 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 座位时段占用索引
+ * 按（日期, 座位）维护PENDING/ACTIVE预约占用的5分钟时段位图，
+ * 座位可用性与冲突检查直接在内存中完成，不再对booking表执行NOT EXISTS子查询；
+ * 占用变化在事务提交后发布SeatStatusChangedEvent，用于向座位图页面推送座位状态
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeatAvailabilityIndex {
+    
+    /**
+     * 时段粒度：5分钟
+     */
+    private static final int SLOT_SECONDS = 5 * 60;
+    
+    private static final int SLOTS_PER_DAY = 24 * 60 * 60 / SLOT_SECONDS;
+    
+    private static final int WORDS_PER_DAY = (SLOTS_PER_DAY + 63) / 64;
+    
+    private static final List<String> OCCUPYING_STATUSES = List.of("PENDING", "ACTIVE");
+    
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final ConcurrentMap<LocalDate, ConcurrentMap<Long, SeatDay>> days = new ConcurrentHashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    /**
+     * 重建期间（包括重建前）释放的预约ID：重建查询结果可能早于这些释放，加载时需跳过，避免留下已释放的占用
+     */
+    private final Set<Long> releasedDuringRebuild = new HashSet<>();
+    
+    /**
+     * 是否仍在重建，与releasedDuringRebuild一起由rebuildLock保护
+     */
+    private boolean rebuilding = true;
+    
+    private final Object rebuildLock = new Object();
+    
+    /**
+     * 启动时从数据库重建索引（只加载今天及以后的有效预约）
+     * 查询期间提交的释放会被记录下来，加载结果时跳过这些预约
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long begin = System.currentTimeMillis();
+        List<Booking> bookings = bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(
+                OCCUPYING_STATUSES, LocalDate.now());
+        synchronized (rebuildLock) {
+            for (Booking booking : bookings) {
+                if (!releasedDuringRebuild.contains(booking.getId())) {
+                    put(booking);
+                }
+            }
+            rebuilding = false;
+            releasedDuringRebuild.clear();
+        }
+        ready = true;
+        log.info("座位占用索引重建完成：{}条有效预约，耗时{}ms",
+                bookings.size(), System.currentTimeMillis() - begin);
+    }
+    
+    /**
+     * 索引是否已完成加载（未加载完成前调用方应回退到数据库查询）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * 检查座位在指定时间段是否空闲
+     */
+    public boolean isFree(Long seatId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        ConcurrentMap<Long, SeatDay> seats = days.get(date);
+        if (seats == null) {
+            return true;
+        }
+        SeatDay day = seats.get(seatId);
+        return day == null || !day.overlaps(startTime.toSecondOfDay(), endTime.toSecondOfDay());
+    }
+    
+    /**
+     * 统计座位中在指定时间段空闲的数量
+     */
+    public int countFree(List<Seat> seats, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        ConcurrentMap<Long, SeatDay> daySeats = days.get(date);
+        if (daySeats == null) {
+            return seats.size();
+        }
+        int start = startTime.toSecondOfDay();
+        int end = endTime.toSecondOfDay();
+        int free = 0;
+        for (Seat seat : seats) {
+            SeatDay day = daySeats.get(seat.getId());
+            if (day == null || !day.overlaps(start, end)) {
+                free++;
+            }
+        }
+        return free;
+    }
+    
+    /**
+     * 记录预约占用（所在事务回滚时自动撤销，提交后发布座位状态变化）
+     */
+    public void occupy(Booking booking) {
+        put(booking);
+        Long seatId = booking.getSeat().getId();
+        TransactionHooks.afterRollback(() -> remove(booking.getId(), seatId, booking.getBookingDate()));
+        TransactionHooks.afterCommit(() -> eventPublisher.publishEvent(
+                new SeatStatusChangedEvent(seatId, booking.getBookingDate())));
+    }
+    
+    /**
+     * 释放预约占用（所在事务提交后生效）
+     */
+    public void release(Booking booking) {
+        release(booking.getId(), booking.getSeat().getId(), booking.getBookingDate());
+    }
+    
+    /**
+     * 按预约ID释放占用（所在事务提交后生效）
+     */
+    public void release(Long bookingId, Long seatId, LocalDate date) {
+        TransactionHooks.afterCommit(() -> {
+            remove(bookingId, seatId, date);
+            eventPublisher.publishEvent(new SeatStatusChangedEvent(seatId, date));
+        });
+    }
+    
+    /**
+     * 清理指定日期之前的索引数据
+     */
+    public void evictBefore(LocalDate date) {
+        days.keySet().removeIf(day -> day.isBefore(date));
+    }
+    
+    private void put(Booking booking) {
+        long id = booking.getId();
+        int start = booking.getStartTime().toSecondOfDay();
+        int end = booking.getEndTime().toSecondOfDay();
+        days.computeIfAbsent(booking.getBookingDate(), d -> new ConcurrentHashMap<>())
+                .compute(booking.getSeat().getId(), (seatId, day) ->
+                        day == null ? SeatDay.EMPTY.with(id, start, end) : day.with(id, start, end));
+    }
+    
+    private void remove(Long bookingId, Long seatId, LocalDate date) {
+        if (!ready) {
+            synchronized (rebuildLock) {
+                if (rebuilding) {
+                    releasedDuringRebuild.add(bookingId);
+                }
+            }
+        }
+        ConcurrentMap<Long, SeatDay> seats = days.get(date);
+        if (seats != null) {
+            seats.computeIfPresent(seatId, (id, day) -> day.without(bookingId));
+        }
+    }
+    
+    /**
+     * 单个座位单日的占用情况（不可变，修改时整体替换，读操作无锁）
+     * bits为时段位图，用于快速排除；starts/ends保存精确区间，用于时段边界上的精确判断
+     */
+    private static final class SeatDay {
+        
+        static final SeatDay EMPTY = new SeatDay(new long[WORDS_PER_DAY], new long[0], new int[0], new int[0]);
+        
+        final long[] bits;
+        final long[] bookingIds;
+        final int[] starts;
+        final int[] ends;
+        
+        SeatDay(long[] bits, long[] bookingIds, int[] starts, int[] ends) {
+            this.bits = bits;
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+        }
+        
+        SeatDay with(long bookingId, int start, int end) {
+            for (long id : bookingIds) {
+                if (id == bookingId) {
+                    return this;
+                }
+            }
+            int n = bookingIds.length;
+            long[] ids = Arrays.copyOf(bookingIds, n + 1);
+            int[] s = Arrays.copyOf(starts, n + 1);
+            int[] e = Arrays.copyOf(ends, n + 1);
+            ids[n] = bookingId;
+            s[n] = start;
+            e[n] = end;
+            long[] newBits = bits.clone();
+            markSlots(newBits, start, end);
+            return new SeatDay(newBits, ids, s, e);
+        }
+        
+        /**
+         * 移除预约，全部移除后返回null（从Map中删除该座位）
+         */
+        SeatDay without(long bookingId) {
+            int index = -1;
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return this;
+            }
+            int n = bookingIds.length - 1;
+            if (n == 0) {
+                return null;
+            }
+            long[] ids = new long[n];
+            int[] s = new int[n];
+            int[] e = new int[n];
+            long[] newBits = new long[WORDS_PER_DAY];
+            for (int i = 0, j = 0; i < bookingIds.length; i++) {
+                if (i == index) {
+                    continue;
+                }
+                ids[j] = bookingIds[i];
+                s[j] = starts[i];
+                e[j] = ends[i];
+                markSlots(newBits, starts[i], ends[i]);
+                j++;
+            }
+            return new SeatDay(newBits, ids, s, e);
+        }
+        
+        boolean overlaps(int start, int end) {
+            if (end <= start || !anySlot(bits, start, end)) {
+                return false;
+            }
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (starts[i] < end && ends[i] > start) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private static void markSlots(long[] bits, int start, int end) {
+            if (end <= start) {
+                return;
+            }
+            int first = start / SLOT_SECONDS;
+            int last = Math.min((end - 1) / SLOT_SECONDS, SLOTS_PER_DAY - 1);
+            for (int slot = first; slot <= last; slot++) {
+                bits[slot >>> 6] |= 1L << slot;
+            }
+        }
+        
+        private static boolean anySlot(long[] bits, int start, int end) {
+            int first = start / SLOT_SECONDS;
+            int last = Math.min((end - 1) / SLOT_SECONDS, SLOTS_PER_DAY - 1);
+            int firstWord = first >>> 6;
+            int lastWord = last >>> 6;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long mask = -1L;
+                if (w == firstWord) {
+                    mask &= -1L << first;
+                }
+                if (w == lastWord) {
+                    mask &= -1L >>> (63 - (last & 63));
+                }
+                if ((bits[w] & mask) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.SeatLayoutTemplate;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.service.SeatProvisioner.SeatCell;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 座位布局
+ * 由布局模板解析得到，生成教室内每个座位的位置（行号、列号，含过道）和座位号
+ */
+public final class SeatLayout {
+    
+    private static final int MAX_SIZE = 50;
+    private static final int MAX_SEAT_NUMBER_LENGTH = 10;
+    
+    /**
+     * 默认布局：10行10列，座位号A01-J10
+     */
+    public static final SeatLayout DEFAULT = new SeatLayout(10, 10, Set.of(), Set.of(), Set.of(), "{rowLetter}{col2}");
+    
+    private final List<SeatCell> cells;
+    
+    private SeatLayout(int rowCount, int colCount, Set<Integer> aisleRows, Set<Integer> aisleCols,
+                       Set<String> disabledCells, String namingPattern) {
+        this.cells = generate(rowCount, colCount, aisleRows, aisleCols, disabledCells, namingPattern);
+    }
+    
+    /**
+     * 解析并校验布局模板
+     */
+    public static SeatLayout of(SeatLayoutTemplate template) {
+        int rowCount = template.getRowCount() == null ? 0 : template.getRowCount();
+        int colCount = template.getColCount() == null ? 0 : template.getColCount();
+        if (rowCount < 1 || rowCount > MAX_SIZE || colCount < 1 || colCount > MAX_SIZE) {
+            throw new BusinessException("行数和列数必须在1-" + MAX_SIZE + "之间");
+        }
+        String namingPattern = template.getNamingPattern();
+        if (namingPattern == null || namingPattern.isBlank()) {
+            throw new BusinessException("座位号格式不能为空");
+        }
+        Set<Integer> aisleRows = parseIndexes(template.getAisleRows(), rowCount, "过道行");
+        Set<Integer> aisleCols = parseIndexes(template.getAisleCols(), colCount, "过道列");
+        Set<String> disabledCells = new HashSet<>();
+        if (template.getDisabledCells() != null) {
+            for (String cell : template.getDisabledCells().split(",")) {
+                if (cell.isBlank()) {
+                    continue;
+                }
+                String[] parts = cell.trim().split("-");
+                if (parts.length != 2) {
+                    throw new BusinessException("不设座位的位置格式应为「行-列」：" + cell.trim());
+                }
+                int row = parseIndex(parts[0], rowCount, "不设座位的位置");
+                int col = parseIndex(parts[1], colCount, "不设座位的位置");
+                disabledCells.add(row + "-" + col);
+            }
+        }
+        SeatLayout layout = new SeatLayout(rowCount, colCount, aisleRows, aisleCols, disabledCells, namingPattern);
+        if (layout.cells.isEmpty()) {
+            throw new BusinessException("布局中没有座位");
+        }
+        Set<String> seatNumbers = new HashSet<>();
+        for (SeatCell cell : layout.cells) {
+            if (cell.seatNumber().length() > MAX_SEAT_NUMBER_LENGTH) {
+                throw new BusinessException("座位号不能超过" + MAX_SEAT_NUMBER_LENGTH + "个字符：" + cell.seatNumber());
+            }
+            if (!seatNumbers.add(cell.seatNumber())) {
+                throw new BusinessException("座位号重复：" + cell.seatNumber() + "，请检查座位号格式");
+            }
+        }
+        return layout;
+    }
+    
+    /**
+     * 布局中的全部座位（按行、列排序）
+     */
+    public List<SeatCell> cells() {
+        return cells;
+    }
+    
+    public int seatCount() {
+        return cells.size();
+    }
+    
+    private static List<SeatCell> generate(int rowCount, int colCount, Set<Integer> aisleRows, Set<Integer> aisleCols,
+                                           Set<String> disabledCells, String namingPattern) {
+        List<SeatCell> result = new ArrayList<>(rowCount * colCount);
+        int seatRow = 0;
+        for (int row = 1; row <= rowCount; row++) {
+            if (aisleRows.contains(row)) {
+                continue;
+            }
+            seatRow++;
+            int seatCol = 0;
+            for (int col = 1; col <= colCount; col++) {
+                if (aisleCols.contains(col)) {
+                    continue;
+                }
+                seatCol++;
+                if (disabledCells.contains(row + "-" + col)) {
+                    continue;
+                }
+                result.add(new SeatCell(seatNumber(namingPattern, seatRow, seatCol), row, col));
+            }
+        }
+        return List.copyOf(result);
+    }
+    
+    /**
+     * 按格式生成座位号，行号、列号不计过道（不设座位的位置仍占用编号）
+     */
+    private static String seatNumber(String pattern, int row, int col) {
+        return pattern
+                .replace("{rowLetter}", row <= 26 ? String.valueOf((char) ('A' + row - 1)) : String.valueOf(row))
+                .replace("{row2}", String.format("%02d", row))
+                .replace("{col2}", String.format("%02d", col))
+                .replace("{row}", String.valueOf(row))
+                .replace("{col}", String.valueOf(col));
+    }
+    
+    private static Set<Integer> parseIndexes(String value, int max, String field) {
+        Set<Integer> indexes = new TreeSet<>();
+        if (value == null) {
+            return indexes;
+        }
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                indexes.add(parseIndex(part, max, field));
+            }
+        }
+        return indexes;
+    }
+    
+    private static int parseIndex(String value, int max, String field) {
+        int index;
+        try {
+            index = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BusinessException(field + "格式错误：" + value.trim());
+        }
+        if (index < 1 || index > max) {
+            throw new BusinessException(field + "超出范围：" + index);
+        }
+        return index;
+    }
+}
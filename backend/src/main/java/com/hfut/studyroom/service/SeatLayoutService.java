@@ -0,0 +1,222 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.dto.SeatLayoutApplyRequest;
+import com.hfut.studyroom.dto.SeatLayoutApplyResultDTO;
+import com.hfut.studyroom.entity.SeatLayoutTemplate;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.ClassroomRepository;
+import com.hfut.studyroom.repository.SeatLayoutTemplateRepository;
+import com.hfut.studyroom.repository.SeatRepository;
+import com.hfut.studyroom.repository.SeatRepository.SeatPosition;
+import com.hfut.studyroom.service.SeatProvisioner.SeatCell;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 座位布局服务
+ * 管理座位布局模板，并按模板批量生成或重新排列教室座位：
+ * 位置（行号、列号）不变的座位保留原座位ID和预约，只新增、改名或删除有变化的座位
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatLayoutService {
+    
+    /**
+     * 检查座位预约记录时每条SQL的座位ID数
+     */
+    private static final int IN_CLAUSE_SIZE = 1000;
+    
+    private final SeatLayoutTemplateRepository templateRepository;
+    private final ClassroomRepository classroomRepository;
+    private final SeatRepository seatRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatProvisioner seatProvisioner;
+    private final ReferenceDataCache referenceDataCache;
+    
+    /**
+     * 全部布局模板
+     */
+    public List<SeatLayoutTemplate> getTemplates() {
+        return templateRepository.findAll(Sort.by("id"));
+    }
+    
+    /**
+     * 创建布局模板
+     */
+    @Transactional
+    public SeatLayoutTemplate createTemplate(SeatLayoutTemplate template) {
+        SeatLayout.of(template);
+        if (templateRepository.findByName(template.getName()) != null) {
+            throw new BusinessException("模板名称已存在");
+        }
+        template.setId(null);
+        return templateRepository.save(template);
+    }
+    
+    /**
+     * 更新布局模板（不影响已生成的座位，重新应用后生效）
+     */
+    @Transactional
+    public SeatLayoutTemplate updateTemplate(Long id, SeatLayoutTemplate template) {
+        SeatLayoutTemplate existing = templateRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("布局模板不存在"));
+        SeatLayout.of(template);
+        SeatLayoutTemplate sameName = templateRepository.findByName(template.getName());
+        if (sameName != null && !sameName.getId().equals(id)) {
+            throw new BusinessException("模板名称已存在");
+        }
+        
+        existing.setName(template.getName());
+        existing.setRowCount(template.getRowCount());
+        existing.setColCount(template.getColCount());
+        existing.setAisleRows(template.getAisleRows());
+        existing.setAisleCols(template.getAisleCols());
+        existing.setDisabledCells(template.getDisabledCells());
+        existing.setNamingPattern(template.getNamingPattern());
+        return templateRepository.save(existing);
+    }
+    
+    /**
+     * 删除布局模板
+     */
+    @Transactional
+    public void deleteTemplate(Long id) {
+        if (!templateRepository.existsById(id)) {
+            throw new BusinessException("布局模板不存在");
+        }
+        templateRepository.deleteById(id);
+    }
+    
+    /**
+     * 获取模板对应的布局，templateId为空时使用默认布局（10行10列）
+     */
+    public SeatLayout getLayout(Long templateId) {
+        if (templateId == null) {
+            return SeatLayout.DEFAULT;
+        }
+        return SeatLayout.of(templateRepository.findById(templateId)
+                .orElseThrow(() -> new BusinessException("布局模板不存在")));
+    }
+    
+    /**
+     * 将布局模板应用到指定教室、整栋教学楼或全校教室（一个事务内完成）
+     */
+    @Transactional
+    public SeatLayoutApplyResultDTO apply(Long templateId, SeatLayoutApplyRequest request) {
+        SeatLayout layout = getLayout(templateId);
+        List<Long> classroomIds = resolveClassroomIds(request);
+        SeatLayoutApplyResultDTO result = applyLayout(layout, classroomIds);
+        log.info("应用座位布局模板{}：{}个教室，新增{}，改名{}，删除{}，不变{}", templateId,
+                result.getClassrooms(), result.getCreated(), result.getRenamed(), result.getRemoved(), result.getUnchanged());
+        return result;
+    }
+    
+    /**
+     * 按布局重新排列教室座位（加入调用方事务）
+     * 一次查询加载全部教室的现有座位，在内存中比对后用JDBC批量删除、改名和新增，
+     * 并把教室容量更新为布局的座位数。需要删除的座位若已有预约记录则拒绝执行。
+     */
+    public SeatLayoutApplyResultDTO applyLayout(SeatLayout layout, Collection<Long> classroomIds) {
+        if (classroomIds.isEmpty()) {
+            return new SeatLayoutApplyResultDTO(0, 0, 0, 0, 0);
+        }
+        Map<Long, List<SeatPosition>> existingByClassroom = seatRepository.findPositionsByClassroomIdIn(classroomIds)
+                .stream()
+                .collect(Collectors.groupingBy(SeatPosition::getClassroomId));
+        
+        Map<Long, List<SeatCell>> toCreate = new LinkedHashMap<>();
+        Map<Long, String> toRename = new LinkedHashMap<>();
+        Map<Long, String> toRemove = new LinkedHashMap<>();
+        boolean swapped = false;
+        int unchanged = 0;
+        for (Long classroomId : classroomIds) {
+            Map<String, SeatPosition> existing = new HashMap<>();
+            for (SeatPosition seat : existingByClassroom.getOrDefault(classroomId, List.of())) {
+                if (existing.putIfAbsent(positionKey(seat.getRowNum(), seat.getColNum()), seat) != null) {
+                    toRemove.put(seat.getId(), seat.getSeatNumber());
+                }
+            }
+            Set<String> renamedFrom = new HashSet<>();
+            List<SeatCell> created = new ArrayList<>();
+            for (SeatCell cell : layout.cells()) {
+                SeatPosition seat = existing.remove(positionKey(cell.rowNum(), cell.colNum()));
+                if (seat == null) {
+                    created.add(cell);
+                } else if (seat.getSeatNumber().equals(cell.seatNumber())) {
+                    unchanged++;
+                } else {
+                    toRename.put(seat.getId(), cell.seatNumber());
+                    renamedFrom.add(seat.getSeatNumber());
+                }
+            }
+            // 新座位号与本教室其他待改名座位的原座位号相同时，需要经临时座位号中转
+            swapped = swapped || layout.cells().stream().anyMatch(cell -> renamedFrom.contains(cell.seatNumber()));
+            existing.values().forEach(seat -> toRemove.put(seat.getId(), seat.getSeatNumber()));
+            if (!created.isEmpty()) {
+                toCreate.put(classroomId, created);
+            }
+        }
+        
+        checkRemovable(toRemove);
+        seatProvisioner.delete(toRemove.keySet());
+        seatProvisioner.rename(toRename, swapped);
+        int created = seatProvisioner.insert(toCreate);
+        classroomRepository.updateCapacity(classroomIds, layout.seatCount());
+        classroomIds.forEach(referenceDataCache::evictClassroom);
+        return new SeatLayoutApplyResultDTO(classroomIds.size(), created, toRename.size(), toRemove.size(), unchanged);
+    }
+    
+    private List<Long> resolveClassroomIds(SeatLayoutApplyRequest request) {
+        if (request.getClassroomIds() != null && !request.getClassroomIds().isEmpty()) {
+            List<Long> classroomIds = request.getClassroomIds().stream().distinct().toList();
+            if (classroomRepository.countByIdIn(classroomIds) != classroomIds.size()) {
+                throw new BusinessException("教室不存在");
+            }
+            return classroomIds;
+        }
+        if (request.getBuildingId() != null) {
+            if (referenceDataCache.getBuilding(request.getBuildingId()).isEmpty()) {
+                throw new BusinessException("教学楼不存在");
+            }
+            return classroomRepository.findIdsByBuildingId(request.getBuildingId());
+        }
+        if (Boolean.TRUE.equals(request.getAllClassrooms())) {
+            return classroomRepository.findAllIds();
+        }
+        throw new BusinessException("请指定教室、教学楼或全部教室");
+    }
+    
+    /**
+     * 已有预约记录的座位不能删除（预约表引用座位ID）
+     */
+    private void checkRemovable(Map<Long, String> toRemove) {
+        List<Long> seatIds = new ArrayList<>(toRemove.keySet());
+        for (int from = 0; from < seatIds.size(); from += IN_CLAUSE_SIZE) {
+            List<Long> booked = bookingRepository.findSeatIdsWithBookings(
+                    seatIds.subList(from, Math.min(from + IN_CLAUSE_SIZE, seatIds.size())));
+            if (!booked.isEmpty()) {
+                throw new BusinessException("座位" + toRemove.get(booked.get(0)) + "等" + booked.size()
+                        + "个需要移除的座位已有预约记录，请保留这些位置或先清理历史预约");
+            }
+        }
+    }
+    
+    private static String positionKey(int rowNum, int colNum) {
+        return rowNum + "-" + colNum;
+    }
+}
@@ -0,0 +1,96 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.Classroom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 座位图版本
+ * 按(教室, 日期)和(教学楼, 日期)记录座位状态的版本号，预约占用/释放座位、教室占用变更后递增；
+ * 与基础数据版本、启动时间一起组成ETag，客户端携带If-None-Match再次请求时只比较内存中的版本即可返回304，不执行任何查询。
+ * 版本号取自全局递增序列，条目被清理后重新出现也不会与旧ETag相同
+ */
+@Component
+@RequiredArgsConstructor
+public class SeatMapVersions {
+    
+    private final ReferenceDataCache referenceDataCache;
+    
+    /**
+     * 启动标识，重启后内存版本归零，旧ETag全部失效
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final ConcurrentMap<VersionKey, Long> versions = new ConcurrentHashMap<>();
+    
+    /**
+     * building为true时id为教学楼ID，否则为教室ID
+     */
+    private record VersionKey(boolean building, Long id, LocalDate date) {
+    }
+    
+    /**
+     * 座位状态变化（已在事务提交后发布）时递增所在教室和教学楼的版本
+     */
+    @EventListener
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        Long classroomId = referenceDataCache.getClassroomIdOfSeat(event.seatId());
+        if (classroomId != null) {
+            bump(classroomId, event.date());
+        }
+    }
+    
+    /**
+     * 教室占用变更，所在事务提交后递增教室和教学楼的版本
+     */
+    public void classroomChanged(Long classroomId, LocalDate date) {
+        TransactionHooks.afterCommit(() -> bump(classroomId, date));
+    }
+    
+    /**
+     * 教学楼、教室列表和详情的ETag
+     */
+    public String referenceTag() {
+        return epoch + "-r" + referenceDataCache.getVersion();
+    }
+    
+    /**
+     * 教室座位图的ETag；未指定日期时只取决于基础数据
+     */
+    public String classroomTag(Long classroomId, LocalDate date) {
+        return date == null ? referenceTag() : referenceTag() + "-c" + version(new VersionKey(false, classroomId, date));
+    }
+    
+    /**
+     * 教学楼座位状态的ETag
+     */
+    public String buildingTag(Long buildingId, LocalDate date) {
+        return referenceTag() + "-b" + version(new VersionKey(true, buildingId, date));
+    }
+    
+    /**
+     * 清理指定日期之前的版本
+     */
+    public void evictBefore(LocalDate date) {
+        versions.keySet().removeIf(key -> key.date().isBefore(date));
+    }
+    
+    private long version(VersionKey key) {
+        return versions.getOrDefault(key, 0L);
+    }
+    
+    private void bump(Long classroomId, LocalDate date) {
+        versions.put(new VersionKey(false, classroomId, date), sequence.incrementAndGet());
+        referenceDataCache.getClassroom(classroomId)
+                .map(Classroom::getBuilding)
+                .ifPresent(building -> versions.put(new VersionKey(true, building.getId(), date), sequence.incrementAndGet()));
+    }
+}
@@ -0,0 +1,134 @@
+package com.hfut.studyroom.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 座位批量写入
+ * 座位ID由数据库自增生成，JPA只能逐条插入；这里直接用JDBC批量插入、修改和删除座位，
+ * 初始化大量教室时按教学楼并行写入，每栋楼一个事务
+ */
+@Slf4j
+@Component
+public class SeatProvisioner {
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO seat (classroom_id, seat_number, row_num, col_num, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String RENAME_SQL = "UPDATE seat SET seat_number = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM seat WHERE id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${app.seat-provisioning.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${app.seat-provisioning.parallelism:4}")
+    private int parallelism;
+    
+    public SeatProvisioner(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * 座位布局中的一个座位
+     */
+    public record SeatCell(String seatNumber, int rowNum, int colNum) {
+    }
+    
+    /**
+     * 按同一布局为多个教室写入座位（加入调用方事务），返回写入的座位数
+     */
+    public int insert(Collection<Long> classroomIds, List<SeatCell> layout) {
+        Map<Long, List<SeatCell>> cellsByClassroom = new LinkedHashMap<>();
+        classroomIds.forEach(classroomId -> cellsByClassroom.put(classroomId, layout));
+        return insert(cellsByClassroom);
+    }
+    
+    /**
+     * 为多个教室写入各自的座位（key为教室ID，加入调用方事务），返回写入的座位数
+     */
+    public int insert(Map<Long, List<SeatCell>> cellsByClassroom) {
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        cellsByClassroom.forEach((classroomId, cells) -> cells.forEach(cell ->
+                rows.add(new Object[]{classroomId, cell.seatNumber(), cell.rowNum(), cell.colNum(), now})));
+        return executeBatches(INSERT_SQL, rows);
+    }
+    
+    /**
+     * 修改座位号（key为座位ID，加入调用方事务）
+     * viaTemporary为true时先改为临时座位号再改为目标座位号，座位之间互换座位号时不会违反唯一约束
+     */
+    public int rename(Map<Long, String> seatNumbers, boolean viaTemporary) {
+        List<Object[]> temporary = new ArrayList<>(seatNumbers.size());
+        List<Object[]> target = new ArrayList<>(seatNumbers.size());
+        seatNumbers.forEach((seatId, seatNumber) -> {
+            temporary.add(new Object[]{"#" + seatId, seatId});
+            target.add(new Object[]{seatNumber, seatId});
+        });
+        if (viaTemporary) {
+            executeBatches(RENAME_SQL, temporary);
+        }
+        return executeBatches(RENAME_SQL, target);
+    }
+    
+    /**
+     * 删除座位（加入调用方事务），调用方需保证座位没有预约记录
+     */
+    public int delete(Collection<Long> seatIds) {
+        List<Object[]> rows = seatIds.stream().map(seatId -> new Object[]{seatId}).toList();
+        return executeBatches(DELETE_SQL, rows);
+    }
+    
+    /**
+     * 按教学楼并行写入座位（key为教学楼ID，value为该楼的教室ID），每栋楼在独立事务中提交
+     */
+    public int insertByBuilding(Map<Long, List<Long>> classroomIdsByBuilding, List<SeatCell> layout) {
+        if (classroomIdsByBuilding.isEmpty()) {
+            return 0;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(parallelism, classroomIdsByBuilding.size())), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-provisioner-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<CompletableFuture<Integer>> futures = classroomIdsByBuilding.entrySet().stream()
+                    .map(entry -> CompletableFuture.supplyAsync(() -> {
+                        Integer count = transactionTemplate.execute(status -> insert(entry.getValue(), layout));
+                        log.debug("教学楼{}写入{}个座位", entry.getKey(), count);
+                        return count != null ? count : 0;
+                    }, executor))
+                    .toList();
+            return futures.stream().mapToInt(CompletableFuture::join).sum();
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private int executeBatches(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())));
+        }
+        return rows.size();
+    }
+}
@@ -1,14 +1,22 @@
 package com.hfut.studyroom.service;
 
+import com.hfut.studyroom.dto.ClassroomSeatSummaryDTO;
 import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.dto.SeatMapDTO;
+import com.hfut.studyroom.entity.Classroom;
 import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.exception.BusinessException;
 import com.hfut.studyroom.repository.BookingRepository;
 import com.hfut.studyroom.repository.SeatRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -22,12 +30,15 @@ public class SeatService {
     private final BookingRepository bookingRepository;
     private final com.hfut.studyroom.repository.ClassroomOccupancyRepository occupancyRepository;
     private final com.hfut.studyroom.repository.ClassroomRepository classroomRepository;
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final ReferenceDataCache referenceDataCache;
+    private final BookingMetrics bookingMetrics;
     
     /**
      * 获取教室的座位列表
      */
     public List<Seat> getClassroomSeats(Long classroomId) {
-        return seatRepository.findByClassroomId(classroomId);
+        return referenceDataCache.getSeats(classroomId);
     }
     
     /**
@@ -39,7 +50,14 @@ public class SeatService {
             LocalTime startTime,
             LocalTime endTime
     ) {
-        return seatRepository.findAvailableSeats(buildingId, date, startTime, endTime);
+        return bookingMetrics.recordSeatQuery("building_available", () -> {
+            if (!seatAvailabilityIndex.isReady()) {
+                return seatRepository.findAvailableSeats(buildingId, date, startTime, endTime);
+            }
+            return referenceDataCache.getOpenSeatsByBuilding(buildingId).stream()
+                    .filter(seat -> seatAvailabilityIndex.isFree(seat.getId(), date, startTime, endTime))
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
@@ -51,7 +69,14 @@ public class SeatService {
             LocalTime startTime,
             LocalTime endTime
     ) {
-        return seatRepository.findAvailableSeatsByClassroom(classroomId, date, startTime, endTime);
+        return bookingMetrics.recordSeatQuery("classroom_available", () -> {
+            if (!seatAvailabilityIndex.isReady()) {
+                return seatRepository.findAvailableSeatsByClassroom(classroomId, date, startTime, endTime);
+            }
+            return referenceDataCache.getSeats(classroomId).stream()
+                    .filter(seat -> seatAvailabilityIndex.isFree(seat.getId(), date, startTime, endTime))
+                    .collect(Collectors.toList());
+        });
     }
     
     /**
@@ -63,13 +88,92 @@ public class SeatService {
             LocalTime startTime,
             LocalTime endTime
     ) {
-        List<Seat> allSeats = seatRepository.findByClassroomId(classroomId);
+        return bookingMetrics.recordSeatQuery("classroom_status",
+                () -> seatsWithStatus(classroomId, date, startTime, endTime));
+    }
+    
+    /**
+     * 教学楼各教室的空闲/总座位数
+     * 座位和空闲情况取自基础数据缓存和座位占用索引，被占用的教室用一次查询得到；
+     * 索引未就绪时用一次可用座位查询按教室计数。未开放或被占用的教室空闲数为0
+     */
+    public List<ClassroomSeatSummaryDTO> getBuildingSeatSummary(
+            Long buildingId,
+            LocalDate date,
+            LocalTime startTime,
+            LocalTime endTime
+    ) {
+        return bookingMetrics.recordSeatQuery("building_summary", () -> {
+            List<Classroom> classrooms = referenceDataCache.getClassrooms(buildingId);
+            Set<Long> occupiedClassroomIds = occupancyRepository.findOccupiedClassroomIds(
+                    buildingId, date, startTime, endTime);
+            Map<Long, Long> fallbackFreeCounts = seatAvailabilityIndex.isReady()
+                    ? null
+                    : seatRepository.findAvailableSeats(buildingId, date, startTime, endTime).stream()
+                            .collect(Collectors.groupingBy(seat -> seat.getClassroom().getId(), Collectors.counting()));
+            
+            List<ClassroomSeatSummaryDTO> summaries = new ArrayList<>(classrooms.size());
+            for (Classroom classroom : classrooms) {
+                List<Seat> seats = referenceDataCache.getSeats(classroom.getId());
+                boolean occupied = occupiedClassroomIds.contains(classroom.getId());
+                int free = 0;
+                if (!occupied && "OPEN".equals(classroom.getStatus())) {
+                    free = fallbackFreeCounts == null
+                            ? seatAvailabilityIndex.countFree(seats, date, startTime, endTime)
+                            : fallbackFreeCounts.getOrDefault(classroom.getId(), 0L).intValue();
+                }
+                summaries.add(ClassroomSeatSummaryDTO.of(classroom, seats.size(), free, occupied));
+            }
+            return summaries;
+        });
+    }
+    
+    /**
+     * 获取教室座位图（紧凑格式）
+     */
+    public SeatMapDTO getClassroomSeatMap(
+            Long classroomId,
+            LocalDate date,
+            LocalTime startTime,
+            LocalTime endTime
+    ) {
+        Classroom classroom = referenceDataCache.getClassroom(classroomId)
+                .orElseThrow(() -> new BusinessException("教室不存在"));
+        return bookingMetrics.recordSeatQuery("classroom_status_compact", () -> {
+            List<Seat> allSeats = referenceDataCache.getSeats(classroomId);
+            return SeatMapDTO.of(classroom, allSeats, occupiedFlags(classroomId, allSeats, date, startTime, endTime));
+        });
+    }
+    
+    private List<SeatDTO> seatsWithStatus(Long classroomId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        List<Seat> allSeats = referenceDataCache.getSeats(classroomId);
+        boolean[] occupied = occupiedFlags(classroomId, allSeats, date, startTime, endTime);
+        
+        // 转换为DTO并设置状态
+        List<SeatDTO> seatDTOs = new ArrayList<>(allSeats.size());
+        for (int i = 0; i < allSeats.size(); i++) {
+            SeatDTO dto = SeatDTO.fromEntity(allSeats.get(i));
+            dto.setStatus(occupied[i] ? "OCCUPIED" : "AVAILABLE");
+            seatDTOs.add(dto);
+        }
+        return seatDTOs;
+    }
+    
+    /**
+     * 计算座位在指定时间段是否被占用，返回值第i项对应allSeats第i个座位
+     */
+    private boolean[] occupiedFlags(
+            Long classroomId,
+            List<Seat> allSeats,
+            LocalDate date,
+            LocalTime startTime,
+            LocalTime endTime
+    ) {
+        boolean[] occupied = new boolean[allSeats.size()];
         
         // 如果没有提供时间参数，所有座位都显示为可用
         if (date == null || startTime == null || endTime == null) {
-            return allSeats.stream()
-                    .map(SeatDTO::fromEntity)
-                    .collect(Collectors.toList());
+            return occupied;
         }
         
         // 检查教室是否被占用（如上课、会议等）
@@ -78,29 +182,24 @@ public class SeatService {
         
         // 如果教室被占用，所有座位都不可用
         if (classroomOccupied) {
-            return allSeats.stream()
-                    .map(seat -> {
-                        SeatDTO dto = SeatDTO.fromEntity(seat);
-                        dto.setStatus("OCCUPIED");
-                        return dto;
-                    })
-                    .collect(Collectors.toList());
+            Arrays.fill(occupied, true);
+            return occupied;
         }
         
-        // 获取可用座位列表
-        List<Seat> availableSeats = seatRepository.findAvailableSeatsByClassroom(
-                classroomId, date, startTime, endTime);
-        
-        // 转换为DTO并设置状态
-        return allSeats.stream()
-                .map(seat -> {
-                    SeatDTO dto = SeatDTO.fromEntity(seat);
-                    // 检查座位是否在可用列表中
-                    boolean isAvailable = availableSeats.stream()
-                            .anyMatch(s -> s.getId().equals(seat.getId()));
-                    dto.setStatus(isAvailable ? "AVAILABLE" : "OCCUPIED");
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        // 索引未就绪时回退到数据库查询
+        if (seatAvailabilityIndex.isReady()) {
+            for (int i = 0; i < occupied.length; i++) {
+                occupied[i] = !seatAvailabilityIndex.isFree(allSeats.get(i).getId(), date, startTime, endTime);
+            }
+        } else {
+            Set<Long> availableSeatIds = seatRepository.findAvailableSeatsByClassroom(classroomId, date, startTime, endTime)
+                    .stream()
+                    .map(Seat::getId)
+                    .collect(Collectors.toSet());
+            for (int i = 0; i < occupied.length; i++) {
+                occupied[i] = !availableSeatIds.contains(allSeats.get(i).getId());
+            }
+        }
+        return occupied;
     }
 }
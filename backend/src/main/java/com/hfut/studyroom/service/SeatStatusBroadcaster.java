@@ -0,0 +1,435 @@
+package com.hfut.studyroom.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hfut.studyroom.entity.Seat;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.repository.ClassroomOccupancyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 座位状态推送（Server-Sent Events）
+ * 订阅按（教室, 日期, 时间段）分组为频道，同一频道的订阅者共享一份座位状态；
+ * 座位占用变化时只重新计算该座位在各频道时间段内的状态，状态确实改变才推送，每条消息只序列化一次。
+ * 频道的创建、订阅、状态计算都在单个推送线程中执行，无需加锁，预约事务线程只负责投递事件；
+ * 推送线程只把消息放入每个订阅者的发件箱，写出连接由写出线程池完成，一个慢客户端不会拖住其他频道。
+ * 发件箱满（客户端跟不上）时断开该连接，浏览器重连后重新获取快照。
+ * 没有订阅者时事件直接忽略。空闲的订阅只占用一个异步请求，不占用线程。
+ */
+@Slf4j
+@Component
+public class SeatStatusBroadcaster {
+    
+    private static final String OCCUPIED = "OCCUPIED";
+    private static final String AVAILABLE = "AVAILABLE";
+    
+    private final SeatAvailabilityIndex seatAvailabilityIndex;
+    private final ReferenceDataCache referenceDataCache;
+    private final ClassroomOccupancyRepository occupancyRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor writer;
+    private final Counter deltaCounter;
+    private final Counter slowConsumerCounter;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final int outboxCapacity;
+    
+    /**
+     * 当前订阅数（任意线程读取，用于快速判断是否需要处理事件）
+     */
+    private final AtomicInteger subscribers = new AtomicInteger();
+    
+    /**
+     * 已断开、待从频道中移除的订阅者（任意线程加入，推送线程在每个任务开始前移除，不经过有界队列）
+     */
+    private final Queue<Subscriber> closedSubscribers = new ConcurrentLinkedQueue<>();
+    
+    // 以下字段只在推送线程中访问
+    private final Map<ChannelKey, Channel> channels = new HashMap<>();
+    private final Map<Long, List<Channel>> channelsByClassroom = new HashMap<>();
+    private final Map<Long, Long> seatClassrooms = new HashMap<>();
+    
+    public SeatStatusBroadcaster(
+            SeatAvailabilityIndex seatAvailabilityIndex,
+            ReferenceDataCache referenceDataCache,
+            ClassroomOccupancyRepository occupancyRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.seat-stream.timeout-minutes:30}") long timeoutMinutes,
+            @Value("${app.seat-stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.seat-stream.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.seat-stream.writer-threads:4}") int writerThreads,
+            @Value("${app.seat-stream.outbox-capacity:32}") int outboxCapacity
+    ) {
+        this.seatAvailabilityIndex = seatAvailabilityIndex;
+        this.referenceDataCache = referenceDataCache;
+        this.occupancyRepository = occupancyRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.outboxCapacity = outboxCapacity;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-status-push");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        // 每个订阅者同时最多一个写出任务，队列长度不超过订阅数
+        AtomicInteger writerIndex = new AtomicInteger();
+        this.writer = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-status-write-" + writerIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("seat.stream.subscribers", subscribers, AtomicInteger::get)
+                .description("座位状态推送订阅数")
+                .register(meterRegistry);
+        this.deltaCounter = Counter.builder("seat.stream.deltas")
+                .description("推送的座位状态变化消息数（按频道计）")
+                .register(meterRegistry);
+        this.slowConsumerCounter = Counter.builder("seat.stream.slow.disconnects")
+                .description("发件箱已满被断开的订阅数")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        writer.shutdownNow();
+        channels.values().forEach(channel -> channel.members.forEach(member -> member.emitter.complete()));
+    }
+    
+    /**
+     * 订阅教室座位状态
+     * 订阅成功后先推送snapshot事件（当前被占用的座位ID），之后座位状态变化时推送seat事件。
+     * 频道需要的座位列表和教室占用在请求线程中读取，推送线程不访问数据库
+     */
+    public SseEmitter subscribe(Long classroomId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (referenceDataCache.getClassroom(classroomId).isEmpty()) {
+            throw new BusinessException("教室不存在");
+        }
+        if (!endTime.isAfter(startTime)) {
+            throw new BusinessException("结束时间必须晚于开始时间");
+        }
+        if (subscribers.get() >= maxSubscribers) {
+            throw new BusinessException(429, "当前查看座位的人数过多，请稍后刷新");
+        }
+        long[] seatIds = referenceDataCache.getSeats(classroomId).stream()
+                .mapToLong(Seat::getId)
+                .sorted()
+                .toArray();
+        boolean classroomOccupied = occupancyRepository.isClassroomOccupied(classroomId, date, startTime, endTime);
+        
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new BusinessException(429, "当前查看座位的人数过多，请稍后刷新");
+        }
+        ChannelKey key = new ChannelKey(classroomId, date, startTime.toSecondOfDay(), endTime.toSecondOfDay());
+        Subscriber subscriber = new Subscriber(key, new SseEmitter(timeoutMillis));
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        if (!submit(() -> register(subscriber, seatIds, classroomOccupied))) {
+            subscriber.close();
+            throw new BusinessException(429, "当前查看座位的人数过多，请稍后刷新");
+        }
+        return emitter;
+    }
+    
+    /**
+     * 座位占用变化（事务提交后在预约线程中调用，只投递到推送线程）
+     */
+    @EventListener
+    public void onSeatStatusChanged(SeatStatusChangedEvent event) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        if (!submit(() -> publish(event.seatId(), event.date()))) {
+            log.warn("座位状态推送队列已满，丢弃座位{}的状态变化", event.seatId());
+        }
+    }
+    
+    /**
+     * 定时发送注释行，及时发现已断开或跟不上的连接
+     */
+    @Scheduled(fixedDelayString = "${app.seat-stream.heartbeat-ms:30000}")
+    public void heartbeat() {
+        if (subscribers.get() == 0 && closedSubscribers.isEmpty()) {
+            return;
+        }
+        submit(() -> {
+            Set<DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+            List.copyOf(channels.values()).forEach(channel -> channel.send(ping));
+        });
+    }
+    
+    /**
+     * 投递到推送线程，队列已满时返回false；每个任务执行前先移除已断开的订阅者
+     */
+    private boolean submit(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    removeClosed();
+                    task.run();
+                } catch (Exception e) {
+                    log.error("座位状态推送失败", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    private void register(Subscriber subscriber, long[] seatIds, boolean classroomOccupied) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        Channel channel = channels.computeIfAbsent(subscriber.key, key -> openChannel(key, seatIds, classroomOccupied));
+        channel.members.add(subscriber);
+        subscriber.enqueue(event("snapshot", Map.of("occupied", channel.occupiedSeatIds())));
+    }
+    
+    private void removeClosed() {
+        Subscriber subscriber;
+        while ((subscriber = closedSubscribers.poll()) != null) {
+            remove(subscriber);
+        }
+    }
+    
+    /**
+     * 从频道中移除订阅者（可重复调用），频道没有订阅者时关闭频道
+     */
+    private void remove(Subscriber subscriber) {
+        ChannelKey key = subscriber.key;
+        Channel channel = channels.get(key);
+        if (channel == null || !channel.members.remove(subscriber)) {
+            return;
+        }
+        if (channel.members.isEmpty()) {
+            channels.remove(key);
+            List<Channel> siblings = channelsByClassroom.get(key.classroomId());
+            siblings.remove(channel);
+            if (siblings.isEmpty()) {
+                channelsByClassroom.remove(key.classroomId());
+                seatClassrooms.values().removeIf(key.classroomId()::equals);
+            }
+        }
+    }
+    
+    /**
+     * 创建频道：按订阅时读取的座位和教室占用计算当前状态（教室在该时间段被占用时全部座位视为占用，不再随预约变化）
+     */
+    private Channel openChannel(ChannelKey key, long[] seatIds, boolean classroomOccupied) {
+        Channel channel = new Channel(key, seatIds, classroomOccupied);
+        for (int i = 0; i < seatIds.length; i++) {
+            if (classroomOccupied || !isFree(seatIds[i], key)) {
+                channel.occupied.set(i);
+            }
+            seatClassrooms.put(seatIds[i], key.classroomId());
+        }
+        channelsByClassroom.computeIfAbsent(key.classroomId(), id -> new ArrayList<>()).add(channel);
+        return channel;
+    }
+    
+    private void publish(Long seatId, LocalDate date) {
+        Long classroomId = seatClassrooms.get(seatId);
+        if (classroomId == null) {
+            return;
+        }
+        Set<DataWithMediaType> occupiedMessage = null;
+        Set<DataWithMediaType> availableMessage = null;
+        for (Channel channel : List.copyOf(channelsByClassroom.getOrDefault(classroomId, List.of()))) {
+            if (channel.classroomOccupied || !channel.key.date().equals(date)) {
+                continue;
+            }
+            int index = Arrays.binarySearch(channel.seatIds, seatId);
+            if (index < 0) {
+                continue;
+            }
+            boolean occupied = !isFree(seatId, channel.key);
+            if (channel.occupied.get(index) == occupied) {
+                continue;
+            }
+            channel.occupied.set(index, occupied);
+            Set<DataWithMediaType> message;
+            if (occupied) {
+                message = occupiedMessage != null ? occupiedMessage
+                        : (occupiedMessage = event("seat", Map.of("seatId", seatId, "status", OCCUPIED)));
+            } else {
+                message = availableMessage != null ? availableMessage
+                        : (availableMessage = event("seat", Map.of("seatId", seatId, "status", AVAILABLE)));
+            }
+            channel.send(message);
+            deltaCounter.increment();
+        }
+    }
+    
+    private boolean isFree(long seatId, ChannelKey key) {
+        return seatAvailabilityIndex.isFree(seatId, key.date(),
+                LocalTime.ofSecondOfDay(key.startSecond()), LocalTime.ofSecondOfDay(key.endSecond()));
+    }
+    
+    /**
+     * 构造SSE事件（数据预先序列化为JSON，所有订阅者共用）
+     */
+    private Set<DataWithMediaType> event(String name, Object data) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(data), MediaType.TEXT_PLAIN)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private void runOnWriter(Runnable task) {
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 已停止
+        }
+    }
+    
+    private record ChannelKey(Long classroomId, LocalDate date, int startSecond, int endSecond) {
+    }
+    
+    /**
+     * 频道：同一教室、日期、时间段的订阅者及座位状态（occupied按seatIds的下标记录，只在推送线程中访问）
+     */
+    private final class Channel {
+        
+        final ChannelKey key;
+        final long[] seatIds;
+        final boolean classroomOccupied;
+        final BitSet occupied;
+        final List<Subscriber> members = new ArrayList<>();
+        
+        Channel(ChannelKey key, long[] seatIds, boolean classroomOccupied) {
+            this.key = key;
+            this.seatIds = seatIds;
+            this.classroomOccupied = classroomOccupied;
+            this.occupied = new BitSet(seatIds.length);
+        }
+        
+        List<Long> occupiedSeatIds() {
+            return occupied.stream().mapToObj(i -> seatIds[i]).toList();
+        }
+        
+        void send(Set<DataWithMediaType> message) {
+            for (Subscriber member : members) {
+                member.enqueue(message);
+            }
+        }
+    }
+    
+    /**
+     * 订阅者：推送线程放入发件箱，写出线程依次写出（同一订阅者同时最多一个写出任务，消息保持顺序）
+     */
+    private final class Subscriber {
+        
+        final ChannelKey key;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        
+        Subscriber(ChannelKey key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+        }
+        
+        /**
+         * 放入发件箱（不阻塞）；发件箱已满说明客户端跟不上，断开连接，浏览器重连后重新获取快照
+         */
+        void enqueue(Set<DataWithMediaType> message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!outbox.offer(message)) {
+                slowConsumerCounter.increment();
+                close();
+                runOnWriter(emitter::complete);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                runOnWriter(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                Set<DataWithMediaType> message;
+                while (!closed.get() && (message = outbox.poll()) != null) {
+                    emitter.send(message);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                draining.set(false);
+            }
+            // 退出循环后推送线程可能又放入了消息
+            if (!closed.get() && !outbox.isEmpty() && draining.compareAndSet(false, true)) {
+                runOnWriter(this::drain);
+            }
+        }
+        
+        /**
+         * 连接结束（完成、超时、出错、跟不上都会调用，只生效一次）：立即减少订阅数，频道中的移除交给推送线程
+         */
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.decrementAndGet();
+            outbox.clear();
+            closedSubscribers.add(this);
+            // 尽快移除；推送队列已满时由之后的任务移除
+            submit(() -> { });
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.hfut.studyroom.service;
+
+import java.time.LocalDate;
+
+/**
+ * 座位占用变化事件（预约创建、取消、签退、超时等引起的占用变化提交后由SeatAvailabilityIndex发布）
+ */
+public record SeatStatusChangedEvent(Long seatId, LocalDate date) {
+}
@@ -0,0 +1,77 @@
+package com.hfut.studyroom.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hfut.studyroom.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 登录会话存储
+ * 登录时生成随机token，会话（用户ID、用户名、角色）保存在内存中，校验token只需一次哈希查找，不访问数据库。
+ * 会话按最后访问时间滑动过期，总数有上限，超出时淘汰最久未使用的会话；应用重启后需要重新登录。
+ */
+@Component
+public class SessionStore {
+    
+    private final Cache<String, Session> sessions;
+    
+    public SessionStore(
+            MeterRegistry meterRegistry,
+            @Value("${app.session.ttl-minutes:120}") long ttlMinutes,
+            @Value("${app.session.max-sessions:100000}") long maxSessions
+    ) {
+        this.sessions = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxSessions)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "auth.sessions");
+    }
+    
+    /**
+     * 登录会话
+     */
+    public record Session(String token, Long userId, String username, String role) {
+        
+        public boolean isAdmin() {
+            return "ADMIN".equals(role);
+        }
+    }
+    
+    /**
+     * 为登录用户创建会话，返回token
+     */
+    public String create(User user) {
+        String token = UUID.randomUUID().toString().replace("-", "");
+        sessions.put(token, new Session(token, user.getId(), user.getUsername(), user.getRole()));
+        return token;
+    }
+    
+    /**
+     * 查找会话（同时刷新过期时间）
+     */
+    public Optional<Session> get(String token) {
+        return Optional.ofNullable(sessions.getIfPresent(token));
+    }
+    
+    /**
+     * 退出登录
+     */
+    public void remove(String token) {
+        sessions.invalidate(token);
+    }
+    
+    /**
+     * 移除用户的全部会话（禁用账号后立即生效，需遍历全部会话）
+     */
+    public void removeUser(Long userId) {
+        sessions.asMap().values().removeIf(session -> session.userId().equals(userId));
+    }
+}
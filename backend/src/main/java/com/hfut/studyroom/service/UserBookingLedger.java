@@ -0,0 +1,360 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.exception.RejectReason;
+import com.hfut.studyroom.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * 用户预约台账
+ * 按用户维护本周及以后计入时长的预约，预约时的每日次数、每周时长和时间重叠检查直接在内存中完成，
+ * 不再对booking表执行计数和重叠查询。每日次数和时间重叠只看仍有效（PENDING/ACTIVE）的预约；
+ * 每周时长还包括本周已签退、已完成和违约的预约，只有取消、超时和删除的预约退回时长。
+ * 与座位占用索引相同：创建时立即登记（事务回滚时撤销），状态结束后在事务提交后更新；
+ * 调用方需持有该用户的预约锁，检查与登记之间不会插入同一用户的其他预约
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserBookingLedger {
+    
+    private static final List<String> OCCUPYING_STATUSES = List.of("PENDING", "ACTIVE");
+    
+    /**
+     * 计入每周时长的状态
+     */
+    private static final List<String> COUNTED_STATUSES = List.of("PENDING", "ACTIVE", "COMPLETED", "VIOLATED");
+    
+    private final BookingRepository bookingRepository;
+    
+    private final ConcurrentMap<Long, UserBookings> users = new ConcurrentHashMap<>();
+    
+    /**
+     * 预约ID到用户ID的映射，释放时只需预约ID
+     */
+    private final ConcurrentMap<Long, Long> owners = new ConcurrentHashMap<>();
+    
+    private volatile boolean ready = false;
+    
+    /**
+     * 重建期间（包括重建前）结束的预约ID，值为是否退回时长：重建查询结果可能早于这些变更，
+     * 加载时退回时长的跳过，其余只按已结束加载，避免留下已释放的预约
+     */
+    private final Map<Long, Boolean> releasedDuringRebuild = new HashMap<>();
+    
+    /**
+     * 是否仍在重建，与releasedDuringRebuild一起由rebuildLock保护
+     */
+    private boolean rebuilding = true;
+    
+    private final Object rebuildLock = new Object();
+    
+    /**
+     * 每个用户每天最多的有效预约数
+     */
+    @Value("${app.booking.quota.max-per-day:1}")
+    private int maxPerDay;
+    
+    /**
+     * 每个用户每周（周一至周日）预约的最长总时长（小时），已签退/已完成的预约仍计入，0表示不限制
+     */
+    @Value("${app.booking.quota.max-hours-per-week:0}")
+    private int maxHoursPerWeek;
+    
+    /**
+     * 启动时从数据库重建台账（加载本周一及以后计入时长的预约）
+     * 查询期间提交的释放会被记录下来，加载结果时按记录处理这些预约
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long begin = System.currentTimeMillis();
+        List<Booking> bookings = bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(
+                COUNTED_STATUSES, weekStart(LocalDate.now()));
+        synchronized (rebuildLock) {
+            for (Booking booking : bookings) {
+                Boolean refunded = releasedDuringRebuild.get(booking.getId());
+                if (refunded == null) {
+                    put(booking, OCCUPYING_STATUSES.contains(booking.getStatus()));
+                } else if (!refunded) {
+                    put(booking, false);
+                }
+            }
+            rebuilding = false;
+            releasedDuringRebuild.clear();
+        }
+        ready = true;
+        log.info("用户预约台账重建完成：{}个用户，{}条预约，耗时{}ms",
+                users.size(), bookings.size(), System.currentTimeMillis() - begin);
+    }
+    
+    /**
+     * 检查每日预约次数和每周预约时长，超出时抛出BusinessException
+     */
+    public void checkQuota(Long userId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        UserBookings bookings = bookingsOf(userId, date);
+        if (bookings.countOn(date) >= maxPerDay) {
+            throw new BusinessException(RejectReason.DAILY_LIMIT, maxPerDay == 1
+                    ? "您在当天已有预约，每天只能预约一次"
+                    : "您在当天的预约已达上限，每天最多预约" + maxPerDay + "次");
+        }
+        if (maxHoursPerWeek > 0) {
+            LocalDate monday = weekStart(date);
+            long seconds = bookings.secondsBetween(monday, monday.plusDays(6))
+                    + endTime.toSecondOfDay() - startTime.toSecondOfDay();
+            if (seconds > maxHoursPerWeek * 3600L) {
+                throw new BusinessException(RejectReason.WEEKLY_HOURS_LIMIT, "本周预约时长已达上限，每周最多预约" + maxHoursPerWeek + "小时");
+            }
+        }
+    }
+    
+    /**
+     * 检查用户在指定时间段是否已有有效预约
+     */
+    public boolean hasOverlap(Long userId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return bookingsOf(userId, date).overlaps(date, startTime.toSecondOfDay(), endTime.toSecondOfDay());
+    }
+    
+    /**
+     * 登记预约（所在事务回滚时自动撤销）
+     */
+    public void occupy(Booking booking) {
+        put(booking, true);
+        TransactionHooks.afterRollback(() -> remove(booking.getId()));
+    }
+    
+    /**
+     * 预约已结束（签退、自动完成、违约），时长仍计入本周（所在事务提交后生效）
+     */
+    public void release(Long bookingId) {
+        TransactionHooks.afterCommit(() -> end(bookingId));
+    }
+    
+    /**
+     * 预约未使用（取消、超时、删除），移除并退回时长（所在事务提交后生效）
+     */
+    public void refund(Long bookingId) {
+        TransactionHooks.afterCommit(() -> remove(bookingId));
+    }
+    
+    /**
+     * 清理指定日期之前的台账数据
+     */
+    public void evictBefore(LocalDate date) {
+        int epochDay = (int) date.toEpochDay();
+        users.forEach((userId, bookings) -> {
+            for (long bookingId : bookings.idsBefore(epochDay)) {
+                remove(bookingId);
+            }
+        });
+    }
+    
+    /**
+     * 取用户的预约；台账未加载完成前从数据库读取请求日期所在周的预约
+     */
+    private UserBookings bookingsOf(Long userId, LocalDate date) {
+        if (!ready) {
+            LocalDate monday = weekStart(date);
+            UserBookings bookings = UserBookings.EMPTY;
+            for (Booking booking : bookingRepository.findByUserIdAndStatusInAndBookingDateBetween(
+                    userId, COUNTED_STATUSES, monday, monday.plusDays(6))) {
+                bookings = bookings.with(booking, OCCUPYING_STATUSES.contains(booking.getStatus()));
+            }
+            return bookings;
+        }
+        return users.getOrDefault(userId, UserBookings.EMPTY);
+    }
+    
+    private void put(Booking booking, boolean occupying) {
+        Long userId = booking.getUser().getId();
+        owners.put(booking.getId(), userId);
+        users.compute(userId, (id, bookings) ->
+                (bookings == null ? UserBookings.EMPTY : bookings).with(booking, occupying));
+    }
+    
+    private void end(Long bookingId) {
+        recordDuringRebuild(bookingId, false);
+        Long userId = owners.get(bookingId);
+        if (userId != null) {
+            users.computeIfPresent(userId, (id, bookings) -> bookings.ended(bookingId));
+        }
+    }
+    
+    private void remove(Long bookingId) {
+        recordDuringRebuild(bookingId, true);
+        Long userId = owners.remove(bookingId);
+        if (userId != null) {
+            users.computeIfPresent(userId, (id, bookings) -> bookings.without(bookingId));
+        }
+    }
+    
+    private void recordDuringRebuild(Long bookingId, boolean refunded) {
+        if (!ready) {
+            synchronized (rebuildLock) {
+                if (rebuilding) {
+                    releasedDuringRebuild.merge(bookingId, refunded, Boolean::logicalOr);
+                }
+            }
+        }
+    }
+    
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+    
+    /**
+     * 单个用户的预约（不可变，修改时整体替换，读操作无锁）
+     * occupying为false表示已结束但仍计入每周时长；用户一周内的预约很少，线性扫描即可
+     */
+    private static final class UserBookings {
+        
+        static final UserBookings EMPTY = new UserBookings(new long[0], new int[0], new int[0], new int[0], new boolean[0]);
+        
+        final long[] bookingIds;
+        final int[] days;
+        final int[] starts;
+        final int[] ends;
+        final boolean[] occupying;
+        
+        UserBookings(long[] bookingIds, int[] days, int[] starts, int[] ends, boolean[] occupying) {
+            this.bookingIds = bookingIds;
+            this.days = days;
+            this.starts = starts;
+            this.ends = ends;
+            this.occupying = occupying;
+        }
+        
+        /**
+         * 加入预约，已存在时保持原状（内存中的状态比数据库读到的新）
+         */
+        UserBookings with(Booking booking, boolean isOccupying) {
+            long bookingId = booking.getId();
+            if (indexOf(bookingId) >= 0) {
+                return this;
+            }
+            int n = bookingIds.length;
+            long[] ids = Arrays.copyOf(bookingIds, n + 1);
+            int[] d = Arrays.copyOf(days, n + 1);
+            int[] s = Arrays.copyOf(starts, n + 1);
+            int[] e = Arrays.copyOf(ends, n + 1);
+            boolean[] o = Arrays.copyOf(occupying, n + 1);
+            ids[n] = bookingId;
+            d[n] = (int) booking.getBookingDate().toEpochDay();
+            s[n] = booking.getStartTime().toSecondOfDay();
+            e[n] = booking.getEndTime().toSecondOfDay();
+            o[n] = isOccupying;
+            return new UserBookings(ids, d, s, e, o);
+        }
+        
+        /**
+         * 标记预约已结束（不再参与每日次数和重叠检查，仍计入每周时长）
+         */
+        UserBookings ended(long bookingId) {
+            int index = indexOf(bookingId);
+            if (index < 0 || !occupying[index]) {
+                return this;
+            }
+            boolean[] o = occupying.clone();
+            o[index] = false;
+            return new UserBookings(bookingIds, days, starts, ends, o);
+        }
+        
+        /**
+         * 移除预约，全部移除后返回null（从Map中删除该用户）
+         */
+        UserBookings without(long bookingId) {
+            int index = indexOf(bookingId);
+            if (index < 0) {
+                return this;
+            }
+            int n = bookingIds.length - 1;
+            if (n == 0) {
+                return null;
+            }
+            long[] ids = new long[n];
+            int[] d = new int[n];
+            int[] s = new int[n];
+            int[] e = new int[n];
+            boolean[] o = new boolean[n];
+            for (int i = 0, j = 0; i < bookingIds.length; i++) {
+                if (i == index) {
+                    continue;
+                }
+                ids[j] = bookingIds[i];
+                d[j] = days[i];
+                s[j] = starts[i];
+                e[j] = ends[i];
+                o[j] = occupying[i];
+                j++;
+            }
+            return new UserBookings(ids, d, s, e, o);
+        }
+        
+        int countOn(LocalDate date) {
+            int day = (int) date.toEpochDay();
+            int count = 0;
+            for (int i = 0; i < days.length; i++) {
+                if (occupying[i] && days[i] == day) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        
+        long secondsBetween(LocalDate from, LocalDate to) {
+            int first = (int) from.toEpochDay();
+            int last = (int) to.toEpochDay();
+            long seconds = 0;
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] >= first && days[i] <= last) {
+                    seconds += ends[i] - starts[i];
+                }
+            }
+            return seconds;
+        }
+        
+        boolean overlaps(LocalDate date, int start, int end) {
+            int day = (int) date.toEpochDay();
+            for (int i = 0; i < days.length; i++) {
+                if (occupying[i] && days[i] == day && starts[i] < end && ends[i] > start) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        long[] idsBefore(int epochDay) {
+            return IntStream.range(0, days.length)
+                    .filter(i -> days[i] < epochDay)
+                    .mapToLong(i -> bookingIds[i])
+                    .toArray();
+        }
+        
+        private int indexOf(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
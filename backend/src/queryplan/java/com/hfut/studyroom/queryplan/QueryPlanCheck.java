@@ -0,0 +1,227 @@
+package com.hfut.studyroom.queryplan;
+
+import com.hfut.studyroom.StudyRoomApplication;
+import com.hfut.studyroom.repository.BookingRepository;
+import com.hfut.studyroom.repository.ClassroomOccupancyRepository;
+import com.hfut.studyroom.repository.SeatRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 查询计划回归检查
+ * 使用内存H2启动应用（DataInitializer生成30000个座位），写入预约和教室占用数据并执行ANALYZE后，
+ * 逐个调用BookingRepository、SeatRepository、ClassroomOccupancyRepository中的@Query方法（事务回滚，不改变数据），
+ * 对Hibernate实际生成的每条SQL执行EXPLAIN；出现全表扫描（tableScan）时列出对应的方法和表，并以非0状态退出。
+ * 按设计读取全表的方法在 {@link #FULL_SCAN_ALLOWED} 中登记并注明原因。
+ */
+public final class QueryPlanCheck {
+    
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            BookingRepository.class, SeatRepository.class, ClassroomOccupancyRepository.class);
+    
+    /**
+     * 允许全表扫描的方法（类名.方法名 -> 原因）
+     */
+    private static final Map<String, String> FULL_SCAN_ALLOWED = Map.of(
+            "BookingRepository.streamAllViews", "导出全部预约",
+            "ClassroomOccupancyRepository.streamAllViews", "导出全部占用记录");
+    
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* ([\\w.]+)\\.tableScan");
+    
+    private static final int SEEDED_DAYS = 7;
+    
+    private QueryPlanCheck() {
+    }
+    
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudyRoomApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + RecordingStatementInspector.class.getName(),
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.hfut.studyroom=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        int failures;
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            seed(jdbcTemplate);
+            jdbcTemplate.execute("ANALYZE");
+            failures = check(context, jdbcTemplate);
+        } finally {
+            context.close();
+        }
+        if (failures > 0) {
+            System.out.printf("%n%d个查询存在全表扫描%n", failures);
+            System.exit(1);
+        }
+        System.out.printf("%n全部查询均使用索引%n");
+    }
+    
+    private static int check(ConfigurableApplicationContext context, JdbcTemplate jdbcTemplate) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        int failures = 0;
+        for (Class<?> repositoryType : REPOSITORIES) {
+            Object repository = context.getBean(repositoryType);
+            List<Method> methods = Arrays.stream(repositoryType.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Query.class))
+                    .sorted(Comparator.comparing(Method::getName))
+                    .toList();
+            for (Method method : methods) {
+                String name = repositoryType.getSimpleName() + "." + method.getName();
+                List<String> scans = new ArrayList<>();
+                for (String sql : capture(transactionTemplate, repository, method)) {
+                    String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                    Matcher matcher = TABLE_SCAN.matcher(plan);
+                    while (matcher.find()) {
+                        scans.add(matcher.group(1));
+                    }
+                }
+                String allowed = FULL_SCAN_ALLOWED.get(name);
+                if (scans.isEmpty()) {
+                    System.out.printf("[OK]   %s%n", name);
+                } else if (allowed != null) {
+                    System.out.printf("[SKIP] %s 全表扫描 %s（%s）%n", name, scans, allowed);
+                } else {
+                    System.out.printf("[FAIL] %s 全表扫描 %s%n", name, scans);
+                    failures++;
+                }
+            }
+        }
+        return failures;
+    }
+    
+    /**
+     * 在回滚的事务中调用方法，返回期间生成的SQL
+     */
+    private static List<String> capture(TransactionTemplate transactionTemplate, Object repository, Method method) {
+        Object[] args = Arrays.stream(method.getParameters()).map(QueryPlanCheck::sampleArgument).toArray();
+        RecordingStatementInspector.drain();
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                Object result = method.invoke(repository, args);
+                if (result instanceof Stream<?> stream) {
+                    try (stream) {
+                        stream.forEach(row -> { });
+                    }
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("调用 " + method + " 失败", e);
+            } finally {
+                status.setRollbackOnly();
+            }
+        });
+        return RecordingStatementInspector.drain();
+    }
+    
+    /**
+     * 按参数类型和名称构造示例参数
+     */
+    private static Object sampleArgument(Parameter parameter) {
+        Class<?> type = parameter.getType();
+        Param param = parameter.getAnnotation(Param.class);
+        String name = param != null ? param.value() : parameter.getName();
+        if (type == Long.class) {
+            return 1L;
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now().plusDays(1);
+        }
+        if (type == LocalTime.class) {
+            return name.toLowerCase().contains("end") ? LocalTime.of(12, 0) : LocalTime.of(10, 0);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == String.class) {
+            return "PENDING";
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 100);
+        }
+        if (Collection.class.isAssignableFrom(type)
+                && parameter.getParameterizedType() instanceof ParameterizedType generic
+                && generic.getActualTypeArguments()[0] == String.class) {
+            return List.of("PENDING", "ACTIVE");
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return List.of(1L, 2L, 3L);
+        }
+        throw new IllegalArgumentException("不支持的参数类型：" + parameter);
+    }
+    
+    /**
+     * 今后7天偶数号座位各一条10:00-12:00的预约，每个教室每天一条占用记录
+     */
+    private static void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> seatIds = jdbcTemplate.queryForList("SELECT id FROM seat WHERE MOD(id, 2) = 0 ORDER BY id", Long.class);
+        List<Long> classroomIds = jdbcTemplate.queryForList("SELECT id FROM classroom ORDER BY id", Long.class);
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> occupancies = new ArrayList<>();
+        for (int day = 0; day < SEEDED_DAYS; day++) {
+            LocalDate date = LocalDate.now().plusDays(day);
+            for (Long seatId : seatIds) {
+                bookings.add(new Object[]{
+                        day % 2 == 0 ? 2L : 3L,
+                        seatId,
+                        Date.valueOf(date),
+                        Time.valueOf(LocalTime.of(10, 0)),
+                        Time.valueOf(LocalTime.of(12, 0)),
+                        Timestamp.valueOf(date.atTime(10, 0)),
+                        Timestamp.valueOf(date.atTime(12, 0)),
+                        day == 0 ? "ACTIVE" : "PENDING",
+                        now
+                });
+            }
+            for (Long classroomId : classroomIds) {
+                occupancies.add(new Object[]{
+                        classroomId,
+                        Date.valueOf(date),
+                        Time.valueOf(LocalTime.of(14, 0)),
+                        Time.valueOf(LocalTime.of(16, 0)),
+                        now
+                });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, start_at, end_at, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                bookings);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO classroom_occupancy (classroom_id, occupancy_date, start_time, end_time, reason, type, status, created_at) " +
+                "VALUES (?, ?, ?, ?, '课程', 'COURSE', 'SCHEDULED', ?)",
+                occupancies);
+    }
+}
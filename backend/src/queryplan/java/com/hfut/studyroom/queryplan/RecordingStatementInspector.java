@@ -0,0 +1,30 @@
+package com.hfut.studyroom.queryplan;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录当前线程中Hibernate生成的SQL（通过 hibernate.session_factory.statement_inspector 注册）
+ * 按线程记录，后台定时任务执行的SQL不会混入被检查的方法
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+    
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+    
+    /**
+     * 取出并清空当前线程已记录的SQL
+     */
+    public static List<String> drain() {
+        List<String> statements = List.copyOf(STATEMENTS.get());
+        STATEMENTS.get().clear();
+        return statements;
+    }
+}
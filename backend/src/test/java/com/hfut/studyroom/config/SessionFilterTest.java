@@ -0,0 +1,198 @@
+package com.hfut.studyroom.config;
+
+import com.hfut.studyroom.dto.BookingRequest;
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.entity.User;
+import com.hfut.studyroom.repository.UserRepository;
+import com.hfut.studyroom.service.BookingService;
+import com.hfut.studyroom.service.SessionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 登录会话过滤器测试：过滤器只校验userId参数，路径中的预约ID由服务层校验归属，缺少userId的请求被拒绝；
+ * 教室占用只有管理员能修改
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SessionFilterTest {
+    
+    private static final LocalDate DATE = LocalDate.now().plusDays(4);
+    private static final String BLACKLIST_USER = "session-blacklist-user";
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private SessionStore sessionStore;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void useJdkHttpClient() {
+        // 默认的HttpURLConnection在收到不带WWW-Authenticate的401时直接抛出异常，读不到响应
+        restTemplate.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+    }
+    
+    @AfterEach
+    void cleanUp() {
+        // 先经服务取消，释放内存中的座位占用和用户预约台账，再删除记录
+        jdbcTemplate.queryForList(
+                "SELECT id, user_id FROM booking WHERE booking_date = ? AND status = 'PENDING'", Date.valueOf(DATE))
+                .forEach(row -> bookingService.cancelBooking(
+                        ((Number) row.get("ID")).longValue(), ((Number) row.get("USER_ID")).longValue()));
+        jdbcTemplate.update("DELETE FROM booking WHERE booking_date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("DELETE FROM classroom_occupancy WHERE occupancy_date = ?", Date.valueOf(DATE));
+        jdbcTemplate.update("DELETE FROM blacklist WHERE user_id IN (SELECT id FROM app_user WHERE username = ?)", BLACKLIST_USER);
+        jdbcTemplate.update("DELETE FROM app_user WHERE username = ?", BLACKLIST_USER);
+    }
+    
+    @Test
+    void bookingIdOfAnotherUserIsRejectedByService() {
+        User owner = user("user1");
+        User other = user("user2");
+        Booking booking = createBooking(owner);
+        
+        ResponseEntity<String> response = post("/bookings/" + booking.getId() + "/cancel?userId=" + other.getId(), other);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("无权操作此预约");
+        assertThat(statusOf(booking)).isEqualTo("PENDING");
+    }
+    
+    @Test
+    void userIdOfAnotherUserIsRejectedByFilter() {
+        User owner = user("user1");
+        User other = user("user2");
+        Booking booking = createBooking(owner);
+        
+        ResponseEntity<String> response = post("/bookings/" + booking.getId() + "/cancel?userId=" + owner.getId(), other);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(statusOf(booking)).isEqualTo("PENDING");
+    }
+    
+    @Test
+    void requestWithoutUserIdIsRejected() {
+        User owner = user("user1");
+        User other = user("user2");
+        Booking booking = createBooking(owner);
+        
+        ResponseEntity<String> response = post("/bookings/" + booking.getId() + "/cancel", other);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("userId");
+        assertThat(statusOf(booking)).isEqualTo("PENDING");
+    }
+    
+    @Test
+    void blacklistOperatorIsTakenFromSession() {
+        User admin = user("admin");
+        jdbcTemplate.update(
+                "INSERT INTO app_user (username, password, real_name, role, status, violation_count, created_at) " +
+                "VALUES (?, 'x', ?, 'USER', 'ACTIVE', 0, ?)",
+                BLACKLIST_USER, BLACKLIST_USER, Timestamp.valueOf(LocalDateTime.now()));
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM app_user WHERE username = ?", Long.class, BLACKLIST_USER);
+        
+        // adminId参数已不再使用，传入其他用户也不影响操作人
+        ResponseEntity<String> response = post(
+                "/admin/blacklist?userId=" + userId + "&reason=test&adminId=" + user("user1").getId(), admin);
+        
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Long createdBy = jdbcTemplate.queryForObject("SELECT created_by FROM blacklist WHERE user_id = ?", Long.class, userId);
+        assertThat(createdBy).isEqualTo(admin.getId());
+    }
+    
+    @Test
+    void occupancyChangesRequireAdmin() {
+        Long occupancyId = createOccupancy();
+        String path = "/occupancies/" + occupancyId;
+        
+        assertThat(exchange(HttpMethod.DELETE, path, null).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(exchange(HttpMethod.POST, path + "/cancel", user("user1")).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(exchange(HttpMethod.DELETE, path, user("user1")).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(exchange(HttpMethod.POST, "/occupancies", user("user1")).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(occupancyStatus(occupancyId)).isEqualTo("ACTIVE");
+        
+        // 查询不需要登录
+        assertThat(exchange(HttpMethod.GET, "/occupancies/today", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        
+        assertThat(exchange(HttpMethod.POST, path + "/cancel", user("admin")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(occupancyStatus(occupancyId)).isEqualTo("CANCELLED");
+    }
+    
+    private Long createOccupancy() {
+        Long classroomId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM classroom", Long.class);
+        jdbcTemplate.update(
+                "INSERT INTO classroom_occupancy (classroom_id, occupancy_date, start_time, end_time, type, reason, status, created_at) " +
+                "VALUES (?, ?, ?, ?, 'MEETING', 'test', 'ACTIVE', ?)",
+                classroomId, Date.valueOf(DATE), Time.valueOf(LocalTime.of(8, 0)), Time.valueOf(LocalTime.of(10, 0)),
+                Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM classroom_occupancy WHERE occupancy_date = ?", Long.class, Date.valueOf(DATE));
+    }
+    
+    private String occupancyStatus(Long occupancyId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM classroom_occupancy WHERE id = ?", String.class, occupancyId);
+    }
+    
+    private User user(String username) {
+        return userRepository.findByUsername(username).orElseThrow();
+    }
+    
+    private Booking createBooking(User user) {
+        Long seatId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM seat", Long.class);
+        BookingRequest request = new BookingRequest();
+        request.setSeatId(seatId);
+        request.setStartTime(DATE + " 18:00:00");
+        request.setEndTime(DATE + " 20:00:00");
+        return bookingService.createBooking(user.getId(), request);
+    }
+    
+    private String statusOf(Booking booking) {
+        return jdbcTemplate.queryForObject("SELECT status FROM booking WHERE id = ?", String.class, booking.getId());
+    }
+    
+    private ResponseEntity<String> post(String path, User user) {
+        return exchange(HttpMethod.POST, path, user);
+    }
+    
+    /**
+     * 以user的会话发送请求，user为null时不携带token
+     */
+    private ResponseEntity<String> exchange(HttpMethod method, String path, User user) {
+        HttpHeaders headers = new HttpHeaders();
+        if (user != null) {
+            headers.setBearerAuth(sessionStore.create(user));
+        }
+        return restTemplate.exchange(path, method, new HttpEntity<>(headers), String.class);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hfut.studyroom.config;
+
+/**
+ * SQL条数断言（测试中防止N+1查询回归）
+ */
+public final class SqlStatementAssertions {
+    
+    private SqlStatementAssertions() {
+    }
+    
+    /**
+     * 断言action执行的SQL条数不超过max，返回其间的SQL统计
+     */
+    public static SqlStatementMonitor.Stats assertMaxStatements(SqlStatementMonitor monitor, int max, Runnable action) {
+        SqlStatementMonitor.Stats stats = monitor.measure(action);
+        if (stats.getCount() > max) {
+            throw new AssertionError("执行了" + stats.getCount() + "条SQL，超过上限" + max + "条");
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,183 @@
+package com.hfut.studyroom.controller;
+
+import com.hfut.studyroom.config.SqlStatementMonitor;
+import com.hfut.studyroom.dto.ApiResponse;
+import com.hfut.studyroom.dto.BlacklistDTO;
+import com.hfut.studyroom.dto.BookingDTO;
+import com.hfut.studyroom.dto.BookingPageDTO;
+import com.hfut.studyroom.dto.BookingSearchRequest;
+import com.hfut.studyroom.dto.SeatDTO;
+import com.hfut.studyroom.service.ReferenceDataCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.hfut.studyroom.config.SqlStatementAssertions.assertMaxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 列表接口SQL条数测试：「我的预约」、黑名单、管理端预约查询和座位列表的SQL条数与记录数无关（防止N+1查询回归）
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ListStatementCountTest {
+    
+    private static final int ROWS = 5;
+    private static final String USER_PREFIX = "statement-user-";
+    
+    @Autowired
+    private BookingController bookingController;
+    
+    @Autowired
+    private AdminController adminController;
+    
+    @Autowired
+    private ClassroomController classroomController;
+    
+    @Autowired
+    private SeatController seatController;
+    
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private SqlStatementMonitor sqlStatementMonitor;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void cleanUp() {
+        String users = "(SELECT id FROM app_user WHERE username LIKE '" + USER_PREFIX + "%')";
+        jdbcTemplate.update("DELETE FROM booking WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM blacklist WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM app_user WHERE username LIKE '" + USER_PREFIX + "%'");
+    }
+    
+    @Test
+    void myBookingsUseOneStatement() {
+        Long userId = createUsers(1).get(0);
+        insertBookings(userId);
+        
+        AtomicReference<ApiResponse<List<BookingDTO>>> response = new AtomicReference<>();
+        assertMaxStatements(sqlStatementMonitor, 1, () -> response.set(bookingController.getMyBookings(userId)));
+        
+        assertThat(response.get().getData()).hasSize(ROWS)
+                .allSatisfy(booking -> assertThat(booking.getBuildingName()).isNotNull());
+    }
+    
+    @Test
+    void adminBookingSearchUsesTwoStatements() {
+        Long userId = createUsers(1).get(0);
+        insertBookings(userId);
+        BookingSearchRequest request = new BookingSearchRequest();
+        request.setUserId(userId);
+        
+        // 一条查本页ID，一条按ID取列表
+        AtomicReference<ApiResponse<BookingPageDTO>> response = new AtomicReference<>();
+        assertMaxStatements(sqlStatementMonitor, 2, () -> response.set(adminController.searchBookings(request)));
+        
+        assertThat(response.get().getData().getItems()).hasSize(ROWS)
+                .allSatisfy(booking -> assertThat(booking.getBuildingName()).isNotNull());
+    }
+    
+    @Test
+    void classroomSeatsUseBoundedStatements() {
+        Long classroomId = jdbcTemplate.queryForObject(
+                "SELECT classroom_id FROM seat GROUP BY classroom_id ORDER BY COUNT(*) DESC, classroom_id FETCH FIRST 1 ROWS ONLY",
+                Long.class);
+        Integer seatCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM seat WHERE classroom_id = ?", Integer.class, classroomId);
+        LocalDate date = LocalDate.now().plusDays(20);
+        // 从空缓存开始，座位及其教室、教学楼的加载也计入
+        referenceDataCache.evictAll();
+        
+        AtomicReference<ApiResponse<List<SeatDTO>>> response = new AtomicReference<>();
+        // 一条加载座位（连同教室、教学楼），一条检查教室占用
+        assertMaxStatements(sqlStatementMonitor, 2, () -> response.set(classroomController.getClassroomSeats(
+                classroomId, date, LocalTime.of(18, 0), LocalTime.of(20, 0), webRequest())));
+        
+        assertThat(response.get().getData()).hasSize(seatCount)
+                .allSatisfy(seat -> assertThat(seat.getBuildingName()).isNotNull());
+    }
+    
+    @Test
+    void availableSeatsUseBoundedStatements() {
+        Long buildingId = jdbcTemplate.queryForObject("SELECT MIN(building_id) FROM classroom", Long.class);
+        LocalDate date = LocalDate.now().plusDays(20);
+        referenceDataCache.evictAll();
+        
+        AtomicReference<ApiResponse<List<SeatDTO>>> response = new AtomicReference<>();
+        // 一条加载教学楼的教室，一条批量加载各教室的座位
+        assertMaxStatements(sqlStatementMonitor, 2, () -> response.set(seatController.getAvailableSeats(
+                buildingId, null, date, LocalTime.of(18, 0), LocalTime.of(20, 0), webRequest())));
+        
+        assertThat(response.get().getData()).isNotEmpty()
+                .allSatisfy(seat -> assertThat(seat.getBuildingName()).isNotNull());
+    }
+    
+    @Test
+    void blacklistUsesOneStatement() {
+        Long adminId = jdbcTemplate.queryForObject("SELECT id FROM app_user WHERE username = 'admin'", Long.class);
+        for (Long userId : createUsers(ROWS)) {
+            jdbcTemplate.update(
+                    "INSERT INTO blacklist (user_id, reason, created_by, created_at) VALUES (?, '测试', ?, ?)",
+                    userId, adminId, Timestamp.valueOf(LocalDateTime.now()));
+        }
+        
+        AtomicReference<ApiResponse<List<BlacklistDTO>>> response = new AtomicReference<>();
+        assertMaxStatements(sqlStatementMonitor, 1, () -> response.set(adminController.getAllBlacklist()));
+        
+        assertThat(response.get().getData()).hasSizeGreaterThanOrEqualTo(ROWS)
+                .allSatisfy(entry -> assertThat(entry.getUsername()).isNotNull());
+    }
+    
+    /**
+     * 为用户写入ROWS条预约，座位分属不同教室，逐条加载关联时每条预约都会多出查询
+     */
+    private void insertBookings(Long userId) {
+        List<Long> seatIds = jdbcTemplate.queryForList(
+                "SELECT MIN(id) FROM seat GROUP BY classroom_id ORDER BY 1 FETCH FIRST " + ROWS + " ROWS ONLY", Long.class);
+        LocalDate date = LocalDate.now().plusDays(20);
+        for (Long seatId : seatIds) {
+            jdbcTemplate.update(
+                    "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, status, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, 'CANCELLED', ?)",
+                    userId, seatId, Date.valueOf(date), Time.valueOf(LocalTime.of(18, 0)), Time.valueOf(LocalTime.of(20, 0)),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        }
+    }
+    
+    private static ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+    
+    private List<Long> createUsers(int count) {
+        List<Long> userIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = USER_PREFIX + i;
+            jdbcTemplate.update(
+                    "INSERT INTO app_user (username, password, real_name, role, status, violation_count, created_at) " +
+                    "VALUES (?, 'x', ?, 'USER', 'ACTIVE', 0, ?)",
+                    username, username, Timestamp.valueOf(LocalDateTime.now()));
+            userIds.add(jdbcTemplate.queryForObject("SELECT id FROM app_user WHERE username = ?", Long.class, username));
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.hfut.studyroom.init;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 预约开始/结束时刻迁移测试：原生UPDATE语句在H2上按日期+时间补齐start_at/end_at
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingTimestampBackfillTest {
+    
+    private static final LocalDate DATE = LocalDate.now().plusDays(30);
+    
+    @Autowired
+    private BookingTimestampBackfill bookingTimestampBackfill;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM booking WHERE booking_date = ?", Date.valueOf(DATE));
+    }
+    
+    @Test
+    void fillsMissingStartAndEndTimestamps() {
+        Long seatId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM seat", Long.class);
+        insertLegacyBooking(seatId, LocalTime.of(8, 30), LocalTime.of(10, 15, 30));
+        insertLegacyBooking(seatId, LocalTime.of(21, 0), LocalTime.of(23, 59, 59));
+        
+        bookingTimestampBackfill.run();
+        
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT start_time, end_time, start_at, end_at FROM booking WHERE booking_date = ? ORDER BY id",
+                Date.valueOf(DATE));
+        assertThat(rows).hasSize(2);
+        for (Map<String, Object> row : rows) {
+            LocalTime startTime = ((Time) row.get("START_TIME")).toLocalTime();
+            LocalTime endTime = ((Time) row.get("END_TIME")).toLocalTime();
+            assertThat(((Timestamp) row.get("START_AT")).toLocalDateTime()).isEqualTo(LocalDateTime.of(DATE, startTime));
+            assertThat(((Timestamp) row.get("END_AT")).toLocalDateTime()).isEqualTo(LocalDateTime.of(DATE, endTime));
+        }
+    }
+    
+    /**
+     * 模拟新增字段之前的预约（start_at/end_at为空）
+     */
+    private void insertLegacyBooking(Long seatId, LocalTime startTime, LocalTime endTime) {
+        jdbcTemplate.update(
+                "INSERT INTO booking (user_id, seat_id, booking_date, start_time, end_time, status, created_at) " +
+                "VALUES ((SELECT MIN(id) FROM app_user), ?, ?, ?, ?, 'CANCELLED', ?)",
+                seatId, Date.valueOf(DATE), Time.valueOf(startTime), Time.valueOf(endTime),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,106 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.dto.BookingRequest;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.exception.RejectReason;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 并发预约测试：大量用户同时预约同一座位的同一时间段，只能有一个成功，其余都因座位冲突被拒绝
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingConcurrencyTest {
+    
+    private static final int THREADS = 1000;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void onlyOneConcurrentBookingForSameSeatAndSlotSucceeds() throws Exception {
+        List<Long> userIds = createUsers(THREADS);
+        Long seatId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM seat", Long.class);
+        LocalDate date = LocalDate.now().plusDays(3);
+        
+        AtomicInteger successes = new AtomicInteger();
+        ConcurrentLinkedQueue<RejectReason> rejections = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (Long userId : userIds) {
+                futures.add(pool.submit(() -> {
+                    BookingRequest request = new BookingRequest();
+                    request.setSeatId(seatId);
+                    request.setStartTime(date + " 18:00:00");
+                    request.setEndTime(date + " 20:00:00");
+                    ready.countDown();
+                    try {
+                        start.await();
+                        bookingService.createBooking(userId, request);
+                        successes.incrementAndGet();
+                    } catch (BusinessException e) {
+                        rejections.add(e.getReason());
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                }));
+            }
+            ready.await();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertThat(unexpected).isEmpty();
+        assertThat(successes.get()).isEqualTo(1);
+        // 落选者必须是被座位冲突检查拒绝的，等锁超时（BUSY）说明并没有真正比较过时间段
+        assertThat(rejections).hasSize(THREADS - 1).containsOnly(RejectReason.SEAT_CONFLICT);
+        Integer pending = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM booking WHERE seat_id = ? AND booking_date = ? AND status = 'PENDING'",
+                Integer.class, seatId, date);
+        assertThat(pending).isEqualTo(1);
+    }
+    
+    private List<Long> createUsers(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"race-user-" + i, "x", "并发用户" + i, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO app_user (username, password, real_name, role, status, violation_count, created_at) " +
+                "VALUES (?, ?, ?, 'USER', 'ACTIVE', 0, ?)",
+                rows);
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM app_user WHERE username LIKE 'race-user-%' ORDER BY id", Long.class);
+    }
+}
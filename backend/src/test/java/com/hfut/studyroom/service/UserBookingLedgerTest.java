@@ -0,0 +1,120 @@
+package com.hfut.studyroom.service;
+
+import com.hfut.studyroom.entity.Booking;
+import com.hfut.studyroom.entity.User;
+import com.hfut.studyroom.exception.BusinessException;
+import com.hfut.studyroom.exception.RejectReason;
+import com.hfut.studyroom.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户预约台账测试（不启动应用，数据库查询用mock代替）：重建时的并发释放、每周时长的计入与退回
+ */
+class UserBookingLedgerTest {
+    
+    private static final long USER_ID = 7L;
+    /**
+     * 下周一，同一周内还有后面几天可用
+     */
+    private static final LocalDate DATE = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+    
+    private BookingRepository bookingRepository;
+    private UserBookingLedger ledger;
+    
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        ledger = new UserBookingLedger(bookingRepository);
+        ReflectionTestUtils.setField(ledger, "maxPerDay", 1);
+        ReflectionTestUtils.setField(ledger, "maxHoursPerWeek", 4);
+    }
+    
+    @Test
+    void bookingReleasedWhileRebuildQueryRunsIsNotLoaded() {
+        Booking booking = booking(1L, LocalTime.of(8, 0), LocalTime.of(10, 0));
+        // 模拟重建查询执行期间该预约被取消并提交：查询结果仍是取消前的数据
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(any(), any())).thenAnswer(invocation -> {
+            ledger.refund(booking.getId());
+            return List.of(booking);
+        });
+        
+        ledger.rebuild();
+        
+        assertThatCode(() -> ledger.checkQuota(USER_ID, DATE, LocalTime.of(14, 0), LocalTime.of(18, 0)))
+                .doesNotThrowAnyException();
+    }
+    
+    @Test
+    void bookingCheckedOutWhileRebuildQueryRunsStillCountsHours() {
+        Booking booking = booking(1L, LocalTime.of(8, 0), LocalTime.of(11, 0));
+        when(bookingRepository.findByStatusInAndBookingDateGreaterThanEqual(any(), any())).thenAnswer(invocation -> {
+            ledger.release(booking.getId());
+            return List.of(booking);
+        });
+        
+        ledger.rebuild();
+        
+        // 已签退：当天可以再预约，但本周已用3小时
+        assertThatCode(() -> ledger.checkQuota(USER_ID, DATE, LocalTime.of(14, 0), LocalTime.of(15, 0)))
+                .doesNotThrowAnyException();
+        assertWeeklyLimit(DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(10, 0));
+    }
+    
+    @Test
+    void checkedOutHoursStillCountTowardsWeek() {
+        ledger.rebuild();
+        ledger.occupy(booking(1L, LocalTime.of(8, 0), LocalTime.of(11, 0)));
+        
+        ledger.release(1L);
+        
+        // 签退后不能靠再次预约超出每周时长
+        assertWeeklyLimit(DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(10, 0));
+        assertThatCode(() -> ledger.checkQuota(USER_ID, DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(9, 0)))
+                .doesNotThrowAnyException();
+    }
+    
+    @Test
+    void cancelledHoursAreRefunded() {
+        ledger.rebuild();
+        ledger.occupy(booking(1L, LocalTime.of(8, 0), LocalTime.of(11, 0)));
+        assertWeeklyLimit(DATE.plusDays(1), LocalTime.of(8, 0), LocalTime.of(10, 0));
+        
+        ledger.refund(1L);
+        
+        assertThatCode(() -> ledger.checkQuota(USER_ID, DATE, LocalTime.of(8, 0), LocalTime.of(12, 0)))
+                .doesNotThrowAnyException();
+    }
+    
+    private void assertWeeklyLimit(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        assertThatThrownBy(() -> ledger.checkQuota(USER_ID, date, startTime, endTime))
+                .isInstanceOfSatisfying(BusinessException.class,
+                        e -> assertThat(e.getReason()).isEqualTo(RejectReason.WEEKLY_HOURS_LIMIT));
+    }
+    
+    private static Booking booking(Long id, LocalTime startTime, LocalTime endTime) {
+        User user = new User();
+        user.setId(USER_ID);
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setUser(user);
+        booking.setBookingDate(DATE);
+        booking.setStartTime(startTime);
+        booking.setEndTime(endTime);
+        booking.setStatus("PENDING");
+        return booking;
+    }
+}
@@ -9,6 +9,7 @@ import {
 } from '@ant-design/icons';
 import { useNavigate, useLocation, Outlet } from 'react-router-dom';
 import { getUser, clearAuth, isAdmin } from '../utils/auth';
+import { logout } from '../services/api';
 import type { MenuProps } from 'antd';
 
 const { Header, Content, Footer } = Layout;
@@ -20,6 +21,7 @@ export default function MainLayout() {
 
   // 处理退出登录
   const handleLogout = () => {
+    logout().catch(() => undefined);
     clearAuth();
     message.success('退出登录成功');
     navigate('/login');
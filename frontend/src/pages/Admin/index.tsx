@@ -8,6 +8,7 @@ import {
   Modal,
   Form,
   Input,
+  InputNumber,
   message,
   Space,
   Statistic,
@@ -35,6 +36,7 @@ import './style.css';
 export default function Admin() {
   const [users, setUsers] = useState<User[]>([]);
   const [bookings, setBookings] = useState<Booking[]>([]);
+  const [bookingCursor, setBookingCursor] = useState<string | null>(null);
   const [blacklist, setBlacklist] = useState<Blacklist[]>([]);
   const [statistics, setStatistics] = useState<Statistics | null>(null);
   const [loading, setLoading] = useState(false);
@@ -51,13 +53,16 @@ export default function Admin() {
     try {
       const [usersRes, bookingsRes, blacklistRes, statsRes] = await Promise.all([
         getAllUsers(),
-        getAllBookings(),
+        getAllBookings({ size: 100 }),
         getBlacklist(),
         getStatistics(),
       ]);
 
       if (usersRes.success) setUsers(usersRes.data);
-      if (bookingsRes.success) setBookings(bookingsRes.data);
+      if (bookingsRes.success) {
+        setBookings(bookingsRes.data.items);
+        setBookingCursor(bookingsRes.data.nextCursor);
+      }
       if (blacklistRes.success) setBlacklist(blacklistRes.data);
       if (statsRes.success) setStatistics(statsRes.data);
     } catch (error) {
@@ -67,6 +72,22 @@ export default function Admin() {
     }
   };
 
+  // 加载更多预约
+  const loadMoreBookings = async () => {
+    if (!bookingCursor) return;
+    setLoading(true);
+    try {
+      const res = await getAllBookings({ cursor: bookingCursor, size: 100 });
+      if (res.success) {
+        setBookings((prev) => [...prev, ...res.data.items]);
+        setBookingCursor(res.data.nextCursor);
+      }
+    } catch (error) {
+      console.error('加载预约失败:', error);
+    } finally {
+      setLoading(false);
+    }
+  };
 
   // 打开黑名单对话框
   const handleOpenBlacklistModal = (userId: number) => {
@@ -80,7 +101,7 @@ export default function Admin() {
     try {
       const values = await form.validateFields();
       if (selectedUserId) {
-        await addBlacklist(selectedUserId, values.reason);
+        await addBlacklist(selectedUserId, values.reason, values.days);
         message.success('已加入黑名单');
         setBlacklistModalVisible(false);
         loadData();
@@ -148,6 +169,11 @@ export default function Admin() {
               <div style={{ fontSize: '12px', color: '#999', marginTop: 2 }}>
                 时间：{blacklistInfo.createdTime}
               </div>
+              {blacklistInfo.expiresAt && (
+                <div style={{ fontSize: '12px', color: '#999', marginTop: 2 }}>
+                  到期：{blacklistInfo.expiresAt}
+                </div>
+              )}
             </div>
           );
         }
@@ -250,9 +276,14 @@ export default function Admin() {
     {
       title: '状态',
       key: 'blacklistStatus',
-      render: () => (
-        <Tag color="error">🚫 永久生效</Tag>
-      ),
+      render: (_: any, record: Blacklist) => {
+        if (!record.expiresAt) {
+          return <Tag color="error">🚫 永久生效</Tag>;
+        }
+        return new Date(record.expiresAt.replace(' ', 'T')) > new Date()
+          ? <Tag color="warning">⏳ 至 {record.expiresAt}</Tag>
+          : <Tag>已到期</Tag>;
+      },
     },
     {
       title: '操作',
@@ -295,13 +326,22 @@ export default function Admin() {
         </span>
       ),
       children: (
-        <Table
-          columns={bookingColumns}
-          dataSource={bookings}
-          rowKey="id"
-          loading={loading}
-          scroll={{ x: 1200 }}
-        />
+        <>
+          <Table
+            columns={bookingColumns}
+            dataSource={bookings}
+            rowKey="id"
+            loading={loading}
+            scroll={{ x: 1200 }}
+          />
+          {bookingCursor && (
+            <div style={{ textAlign: 'center', marginTop: 16 }}>
+              <Button onClick={loadMoreBookings} loading={loading}>
+                加载更多
+              </Button>
+            </div>
+          )}
+        </>
       ),
     },
     {
@@ -385,6 +425,9 @@ export default function Admin() {
           >
             <Input.TextArea rows={3} placeholder="请输入拉黑原因" />
           </Form.Item>
+          <Form.Item label="拉黑天数" name="days" extra="不填表示永久拉黑，到期后自动恢复预约资格">
+            <InputNumber min={1} precision={0} style={{ width: '100%' }} placeholder="永久" />
+          </Form.Item>
         </Form>
       </Modal>
     </div>
@@ -1,4 +1,4 @@
-import { useEffect, useState } from 'react';
+import { useEffect, useRef, useState } from 'react';
 import { 
   Card, 
   Form, 
@@ -23,8 +23,10 @@ import {
   getBuildings,
   getClassroomsByBuilding,
   createBooking,
+  getClassroomSeatMap,
+  expandSeatMap,
+  subscribeSeatStatus,
 } from '../../services/api';
-import request from '../../utils/request';
 import SeatMap from '../../components/SeatMap';
 import type { Building, Classroom, Seat } from '../../types';
 import './style.css';
@@ -37,12 +39,36 @@ export default function Booking() {
   const [loading, setLoading] = useState(false);
   const [searchLoading, setSearchLoading] = useState(false);
   const [currentStep, setCurrentStep] = useState(0);
+  const seatStream = useRef<EventSource | null>(null);
 
   // 加载教学楼
   useEffect(() => {
     loadBuildings();
+    return closeSeatStream;
   }, []);
 
+  const closeSeatStream = () => {
+    seatStream.current?.close();
+    seatStream.current = null;
+  };
+
+  // 订阅座位状态变化，其他用户预约或取消后座位图自动更新，无需重新查询
+  const openSeatStream = (classroomId: number, date: string, startTime: string, endTime: string) => {
+    closeSeatStream();
+    seatStream.current = subscribeSeatStatus(classroomId, { date, startTime, endTime }, {
+      onSnapshot: ({ occupied }) => {
+        const occupiedIds = new Set(occupied);
+        setSeats((prev) => prev.map((seat): Seat => ({
+          ...seat,
+          status: occupiedIds.has(seat.id) ? 'OCCUPIED' : 'AVAILABLE',
+        })));
+      },
+      onSeat: ({ seatId, status }) => {
+        setSeats((prev) => prev.map((seat) => (seat.id === seatId ? { ...seat, status } : seat)));
+      },
+    });
+  };
+
   const loadBuildings = async () => {
     setLoading(true);
     try {
@@ -60,6 +86,7 @@ export default function Booking() {
   // 教学楼改变时加载教室
   const handleBuildingChange = async (buildingId: number) => {
     form.setFieldsValue({ classroomId: undefined });
+    closeSeatStream();
     setClassrooms([]);
     setSeats([]);
     setCurrentStep(0);
@@ -83,6 +110,7 @@ export default function Booking() {
 
   // 选择教室后加载座位
   const handleClassroomChange = async () => {
+    closeSeatStream();
     setSeats([]);
     setCurrentStep(1);
   };
@@ -105,13 +133,14 @@ export default function Booking() {
       const startTime = dayjs(values.startTime).format('HH:mm:ss');
       const endTime = dayjs(values.endTime).format('HH:mm:ss');
       
-      const url = `/classrooms/${values.classroomId}/seats?date=${date}&startTime=${startTime}&endTime=${endTime}`;
-      const response = await request.get<any, any>(url);
+      const response = await getClassroomSeatMap(values.classroomId, { date, startTime, endTime });
       
       if (response && response.data) {
-        setSeats(response.data);
+        const classroomSeats = expandSeatMap(response.data);
+        setSeats(classroomSeats);
         setCurrentStep(2);
-        const available = response.data.filter((s: Seat) => s.status === 'AVAILABLE').length;
+        openSeatStream(values.classroomId, date, startTime, endTime);
+        const available = classroomSeats.filter((s) => s.status === 'AVAILABLE').length;
         message.success(`找到 ${available} 个可用座位`);
       }
     } catch (error) {
@@ -143,8 +172,7 @@ export default function Booking() {
 
       if (response.success) {
         message.success('预约成功！请在签到窗口内完成签到');
-        // 刷新座位状态
-        handleViewSeats();
+        // 座位状态由推送更新
       } else {
         message.error(response.message || '预约失败');
       }
@@ -4,13 +4,18 @@ import type {
   User,
   Building,
   Classroom,
+  ClassroomSeatSummary,
   Seat,
+  SeatMap,
   Booking,
+  BookingPage,
   Blacklist,
   LoginRequest,
   RegisterRequest,
   BookingRequest,
   SeatQueryParams,
+  SeatSnapshotEvent,
+  SeatStatusEvent,
   Statistics,
 } from '../types';
 
@@ -26,6 +31,11 @@ export const register = (data: RegisterRequest) => {
   return request.post<any, ApiResponse<User>>('/auth/register', data);
 };
 
+// 退出登录
+export const logout = () => {
+  return request.post<any, ApiResponse<void>>('/auth/logout');
+};
+
 // 获取当前用户信息
 export const getCurrentUser = () => {
   return request.get<any, ApiResponse<User>>('/auth/me');
@@ -55,6 +65,14 @@ export const getClassroomsByBuilding = (buildingId: number) => {
   return request.get<any, ApiResponse<Classroom[]>>(`/classrooms?buildingId=${buildingId}`);
 };
 
+// 获取教学楼各教室在指定时间段的空闲/总座位数
+export const getBuildingSeatSummary = (
+  buildingId: number,
+  params: { date: string; startTime: string; endTime: string },
+) => {
+  return request.get<any, ApiResponse<ClassroomSeatSummary[]>>(`/buildings/${buildingId}/seat-summary`, { params });
+};
+
 // 获取教室详情
 export const getClassroom = (id: number) => {
   return request.get<any, ApiResponse<Classroom>>(`/classrooms/${id}`);
@@ -72,6 +90,55 @@ export const getSeatsByClassroom = (classroomId: number) => {
   return request.get<any, ApiResponse<Seat[]>>(`/classrooms/${classroomId}/seats`);
 };
 
+// 紧凑座位图格式（按 Accept 请求头协商）
+const SEAT_MAP_MEDIA_TYPE = 'application/vnd.studyroom.seat-map+json';
+
+// 获取教室座位图（紧凑格式），用 expandSeatMap 还原为座位列表
+export const getClassroomSeatMap = (
+  classroomId: number,
+  params: { date: string; startTime: string; endTime: string },
+) => {
+  return request.get<any, ApiResponse<SeatMap>>(`/classrooms/${classroomId}/seats`, {
+    params,
+    headers: { Accept: SEAT_MAP_MEDIA_TYPE },
+  });
+};
+
+// 将紧凑座位图展开为座位列表
+export const expandSeatMap = (map: SeatMap): Seat[] => {
+  const statuses: Seat['status'][] = [];
+  for (const [, count, code] of (map.status ?? `${map.ids.length}A`).matchAll(/(\d+)([AO])/g)) {
+    statuses.push(...Array<Seat['status']>(Number(count)).fill(code === 'O' ? 'OCCUPIED' : 'AVAILABLE'));
+  }
+  return map.ids.map((id, i): Seat => ({
+    id,
+    classroomId: map.classroomId,
+    classroomName: map.classroomName,
+    buildingName: map.buildingName,
+    seatNumber: map.seatNumbers[i],
+    location: `第${map.rows[i]}排第${map.cols[i]}列`,
+    status: statuses[i],
+    rowNum: map.rows[i],
+    colNum: map.cols[i],
+  }));
+};
+
+// 订阅教室座位状态变化（Server-Sent Events），调用方负责在不再需要时 close()
+export const subscribeSeatStatus = (
+  classroomId: number,
+  params: { date: string; startTime: string; endTime: string },
+  handlers: {
+    onSnapshot: (event: SeatSnapshotEvent) => void;
+    onSeat: (event: SeatStatusEvent) => void;
+  },
+) => {
+  const query = new URLSearchParams(params).toString();
+  const source = new EventSource(`${request.defaults.baseURL}/classrooms/${classroomId}/seats/stream?${query}`);
+  source.addEventListener('snapshot', (e) => handlers.onSnapshot(JSON.parse((e as MessageEvent).data)));
+  source.addEventListener('seat', (e) => handlers.onSeat(JSON.parse((e as MessageEvent).data)));
+  return source;
+};
+
 // 获取座位详情
 export const getSeat = (id: number) => {
   return request.get<any, ApiResponse<Seat>>(`/seats/${id}`);
@@ -110,9 +177,9 @@ export const getAllUsers = () => {
   return request.get<any, ApiResponse<User[]>>('/admin/users');
 };
 
-// 获取所有预约
-export const getAllBookings = () => {
-  return request.get<any, ApiResponse<Booking[]>>('/admin/bookings');
+// 分页查询预约（cursor 为上一页返回的 nextCursor）
+export const getAllBookings = (params?: { cursor?: string; size?: number }) => {
+  return request.get<any, ApiResponse<BookingPage>>('/admin/bookings', { params });
 };
 
 // 获取统计数据
@@ -131,10 +198,10 @@ export const enableUser = (userId: number) => {
 };
 
 // 添加黑名单
-export const addBlacklist = (userId: number, reason: string) => {
-  const admin = JSON.parse(localStorage.getItem('user') || '{}');
+export const addBlacklist = (userId: number, reason: string, days?: number) => {
+  const daysParam = days ? `&days=${days}` : '';
   return request.post<any, ApiResponse<Blacklist>>(
-    `/admin/blacklist?userId=${userId}&reason=${encodeURIComponent(reason)}&adminId=${admin.id}`
+    `/admin/blacklist?userId=${userId}&reason=${encodeURIComponent(reason)}${daysParam}`
   );
 };
 
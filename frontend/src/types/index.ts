@@ -59,6 +59,42 @@ export interface Seat {
   nearWindow?: boolean;
 }
 
+// 教室座位统计（教学楼概览）
+export interface ClassroomSeatSummary {
+  classroomId: number;
+  roomNumber: string;
+  floor: number;
+  status: 'OPEN' | 'CLOSED' | 'MAINTENANCE';
+  totalSeats: number;
+  freeSeats: number;
+  occupied: boolean;
+}
+
+// 紧凑座位图：教室信息只出现一次，座位字段为并列数组，
+// status 为游程编码（如 "12A3O85A"：12个可用、3个占用、85个可用），可用座位列表中省略
+export interface SeatMap {
+  classroomId: number;
+  classroomName: string;
+  buildingId: number;
+  buildingName: string;
+  ids: number[];
+  seatNumbers: string[];
+  rows: number[];
+  cols: number[];
+  status?: string;
+}
+
+// 座位状态推送：订阅后首先收到的快照
+export interface SeatSnapshotEvent {
+  occupied: number[];
+}
+
+// 座位状态推送：单个座位状态变化
+export interface SeatStatusEvent {
+  seatId: number;
+  status: 'AVAILABLE' | 'OCCUPIED';
+}
+
 // 预约类型
 export interface Booking {
   id: number;
@@ -74,6 +110,13 @@ export interface Booking {
   createdTime: string;
 }
 
+// 预约分页结果（管理端）
+export interface BookingPage {
+  items: Booking[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 // 黑名单类型
 export interface Blacklist {
   id: number;
@@ -82,6 +125,7 @@ export interface Blacklist {
   realName: string;
   reason: string;
   createdByUsername?: string;
+  expiresAt?: string;
   createdTime: string;
 }
 